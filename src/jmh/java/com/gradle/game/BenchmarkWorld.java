@@ -0,0 +1,78 @@
+package com.gradle.game;
+
+import com.gradle.game.entities.mobs.Mob;
+import com.gradle.game.entities.mobs.MobRegistry;
+import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.gui.screens.IngameScreen;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.Spawnpoint;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.resources.Resources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Shared setup for the benchmarks. Boots the engine without a window and loads the sample room,
+// so the hot paths can be called directly without the game loop running.
+public final class BenchmarkWorld {
+    private BenchmarkWorld() {
+    }
+
+    public static final String MAP = "mansion";
+    private static boolean initialized = false;
+
+    public static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+
+        Game.init(Game.COMMANDLINE_ARG_NOGUI);
+        Resources.load("game.litidata");
+
+        // windows and pause menus are attached to this screen when players are created
+        Game.screens().add(new IngameScreen());
+        GameManager.init();
+
+        Environment e = Game.world().loadEnvironment(MAP);
+
+        // the sample room has no spawnpoints, so give players somewhere to go
+        if (e.getSpawnpoint("enter") == null) {
+            Spawnpoint enter = new Spawnpoint(e.getMap().getSizeInPixels().getWidth() / 2.0,
+                    e.getMap().getSizeInPixels().getHeight() / 2.0);
+            enter.setName("enter");
+            e.add(enter);
+        }
+        GameManager.spawnIn(PlayerManager.getCurrent());
+
+        initialized = true;
+    }
+
+    // adds keyboard controlled players until there are the given amount
+    public static void setPlayerCount(int count) {
+        for (int i = PlayerManager.size(); i < count; i++) {
+            PlayerManager.addPlayer("hoodie", "bench" + i, false);
+        }
+    }
+
+    // spawns mobs at random locations in the current room. the seed keeps runs comparable.
+    public static List<Mob> spawnMobs(int count, long seed) {
+        Environment e = Game.world().environment();
+        Random random = new Random(seed);
+        double width = e.getMap().getSizeInPixels().getWidth();
+        double height = e.getMap().getSizeInPixels().getHeight();
+
+        List<Mob> mobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Mob mob = MobRegistry.get("eye").create();
+            mob.setLocation(random.nextDouble() * width, random.nextDouble() * height);
+            e.add(mob);
+            mobs.add(mob);
+        }
+        return mobs;
+    }
+
+    public static void removeMobs(List<Mob> mobs) {
+        Game.world().environment().removeAll(mobs);
+    }
+}
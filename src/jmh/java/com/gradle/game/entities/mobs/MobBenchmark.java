@@ -0,0 +1,55 @@
+package com.gradle.game.entities.mobs;
+
+import com.gradle.game.BenchmarkWorld;
+import de.gurkenlabs.litiengine.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One op is a full pass over every mob in the room, the same as one tick of the game loop.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MobBenchmark {
+
+    private static final Direction[] DIRECTIONS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    @Param({"10", "100", "1000", "10000"})
+    public int mobCount;
+
+    @Param({"1", "2", "4"})
+    public int playerCount;
+
+    private List<Mob> mobs;
+    private int turn;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkWorld.init();
+        BenchmarkWorld.setPlayerCount(playerCount);
+        mobs = BenchmarkWorld.spawnMobs(mobCount, 42L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkWorld.removeMobs(mobs);
+    }
+
+    // the mobs are registered with MobSystem when they are added to the room
+    @Benchmark
+    public void update() {
+        MobSystem.instance().update();
+    }
+
+    @Benchmark
+    public void setFacingDirection() {
+        Direction direction = DIRECTIONS[turn++ & 3];
+        for (int i = 0; i < mobs.size(); i++) {
+            mobs.get(i).setFacingDirection(direction);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gradle.game.entities.player;
+
+import com.gradle.game.BenchmarkWorld;
+import de.gurkenlabs.litiengine.graphics.animation.IEntityAnimationController;
+import de.gurkenlabs.litiengine.physics.IMovementController;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerControllerManagerBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int playerCount;
+
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkWorld.init();
+        BenchmarkWorld.setPlayerCount(playerCount);
+        player = PlayerManager.getCurrent();
+    }
+
+    // exact class key, found by the first map lookup
+    @Benchmark
+    public Object getControllerExact() {
+        return player.getController(PlayerKeyboardController.class);
+    }
+
+    // interface key, falls through to the isInstance scan
+    @Benchmark
+    public Object getControllerByInterface() {
+        return player.getController(IMovementController.class);
+    }
+
+    @Benchmark
+    public Object getAnimationController() {
+        return player.getController(IEntityAnimationController.class);
+    }
+}
@@ -0,0 +1,34 @@
+package com.gradle.game.entities.player;
+
+import com.gradle.game.BenchmarkWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerManagerBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int playerCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkWorld.init();
+        BenchmarkWorld.setPlayerCount(playerCount);
+    }
+
+    @Benchmark
+    public Object getAll() {
+        return PlayerManager.getAll();
+    }
+
+    @Benchmark
+    public Object getSnapshot() {
+        return PlayerManager.getSnapshot();
+    }
+}
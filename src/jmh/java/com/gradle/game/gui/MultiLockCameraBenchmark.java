@@ -0,0 +1,32 @@
+package com.gradle.game.gui;
+
+import com.gradle.game.BenchmarkWorld;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiLockCameraBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int playerCount;
+
+    private MultiLockCamera camera;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkWorld.init();
+        BenchmarkWorld.setPlayerCount(playerCount);
+        camera = new MultiLockCamera();
+    }
+
+    @Benchmark
+    public Object getLockedCameraLocation() {
+        return camera.getLockedCameraLocation();
+    }
+}
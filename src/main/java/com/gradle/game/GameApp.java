@@ -1,9 +1,9 @@
 package com.gradle.game;
+import com.gradle.game.atlas.AtlasLoader;
 import com.gradle.game.gui.screens.ControllerScreen;
 import com.gradle.game.gui.screens.IngameScreen;
 import com.gradle.game.gui.screens.MainMenuScreen;
 import de.gurkenlabs.litiengine.Game;
-import de.gurkenlabs.litiengine.resources.Resources;
 
 public class GameApp {
     public static void main(String[] args) {
@@ -15,10 +15,13 @@ public class GameApp {
 
         Game.init(args);
 
+        // our own systems run from here, in order, starting with the input the listeners posted
+        GameTick.init();
+
         Game.graphics().setBaseRenderScale(4f);
 
-        //import resources here
-        Resources.load("game2.litidata");
+        //import resources here. sprites come from the atlas the build packs into the resources
+        AtlasLoader.load("game.litidata");
 
         // Cassette noise while game is loading
         Game.audio().playSound("267831__magedu__video-recorder-load-cassette-01v2");
@@ -1,20 +1,27 @@
 package com.gradle.game;
 
 import com.gradle.game.entities.*;
-import com.gradle.game.entities.mobs.EyeballMob;
 import com.gradle.game.entities.mobs.Mob;
+import com.gradle.game.entities.mobs.MobRegistry;
+import com.gradle.game.entities.mobs.MobSystem;
 import com.gradle.game.entities.player.Player;
 import com.gradle.game.entities.player.PlayerGamepadController;
 import com.gradle.game.entities.player.PlayerManager;
 import com.gradle.game.gui.FontTypes;
 import com.gradle.game.gui.MultiLockCamera;
+import com.gradle.game.gui.TileChunkCache;
 import com.gradle.game.gui.windows.WindowManager;
+import com.gradle.game.input.InputQueue;
+import com.gradle.game.input.InputRecorder;
+import com.gradle.game.net.NetClient;
+import com.gradle.game.net.NetProtocol;
+import com.gradle.game.net.NetServer;
+import com.gradle.game.profiling.TickProfiler;
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.GameListener;
 import de.gurkenlabs.litiengine.entities.Spawnpoint;
 import de.gurkenlabs.litiengine.environment.Environment;
 import de.gurkenlabs.litiengine.environment.PropMapObjectLoader;
-import de.gurkenlabs.litiengine.graphics.Camera;
 import de.gurkenlabs.litiengine.gui.GuiComponent;
 import de.gurkenlabs.litiengine.input.Gamepad;
 import de.gurkenlabs.litiengine.input.GamepadEvent;
@@ -23,6 +30,7 @@ import de.gurkenlabs.litiengine.input.Input;
 import de.gurkenlabs.litiengine.physics.IMovementController;
 
 import java.awt.*;
+import java.nio.file.Path;
 
 public final class GameManager {
     private GameManager() {
@@ -30,6 +38,13 @@ public final class GameManager {
 
     private static GameType currentGameType = GameType.SINGLEPLAYER;
 
+    // everything random in the world (mob wandering for now) is derived from this, so a run can be repeated
+    private static long worldSeed = new java.util.Random().nextLong();
+
+    // follows the players. while split screen renders, Game.world().camera() is one of the viewport cameras,
+    // so anything that wants the players' camera asks for this one
+    private static MultiLockCamera camera = null;
+
     // variables for adding new players via gamepad prompts
     private static GuiComponent prompt = null;
     private static GamepadEvents.GamepadReleasedListener start = null;
@@ -45,9 +60,12 @@ public final class GameManager {
         // Initialize managers.
         WindowManager.init();
         PlayerManager.init();
+        SpatialIndex.init();
+        MobRegistry.init();
+        TileChunkCache.init();
 
         //set locked camera to player
-        Camera camera = new MultiLockCamera(PlayerManager.getAll());
+        camera = new MultiLockCamera();
         camera.setClampToMap(true);
         Game.world().setCamera(camera);
 
@@ -67,6 +85,12 @@ public final class GameManager {
             @Override
             public boolean terminating() {
                 PlayerManager.saveGames();
+                InputRecorder.stop();
+                NetServer.stop();
+                NetClient.disconnect();
+                if (TickProfiler.isEnabled()) {
+                    TickProfiler.dump();
+                }
                 return GameListener.super.terminating();
             }
         });
@@ -81,75 +105,112 @@ public final class GameManager {
 
     public static void startGame() {
 
-        Input.gamepads().onAdded(gamepad -> {
-            if (currentGameType == GameType.SINGLEPLAYER) {
-                PlayerGamepadController gamepadController = new PlayerGamepadController(
-                        PlayerManager.getCurrent());
-                PlayerManager.getCurrent().addController(gamepadController);
-
-            } else { // co-op
-                final double centerX = Game.window().getResolution().getWidth() / 2.0;
-                final double bottom = Game.window().getResolution().getHeight();
-
-                // add prompt for new player saying that they can join in.
-                prompt = new GuiComponent(centerX-(450.0/2), bottom - 120) {
-                    @Override
-                    protected void initializeComponents() {
-                        super.initializeComponents();
-                        this.setFont(FontTypes.GEN);
-                        this.getAppearance().setForeColor(new Color(255,255,255));
-                        this.setTextShadow(true);
-                        this.setTextShadowColor(new Color(0,0,0));
-                        this.setDimension(450, FontTypes.GEN.getSize());
-                        this.setText("Press start to join");
-                        this.setVisible(true);
-                    }
-                };
-                Game.screens().get("INGAME-SCREEN").getComponents().add(prompt);
-
-                // add listener so new player can join in
-                start = new GamepadEvents.GamepadReleasedListener() {
-                    @Override
-                    public void released(GamepadEvent event) {
-                        Game.screens().get("INGAME-SCREEN").getComponents().remove(prompt);
-                        PlayerManager.addPlayer("hoodie", "steve", event.getGamepad().getId());
-                        Game.loop().perform(1, () -> gamepad.removeReleasedListener(Gamepad.Xbox.START, this));
+        // gamepads come and go on an input thread, the game reacts on the loop thread
+        Input.gamepads().onAdded(gamepad -> InputQueue.post(() -> gamepadAdded(gamepad)));
+        Input.gamepads().onRemoved(gamepad -> InputQueue.post(() -> gamepadRemoved(gamepad)));
 
-                        prompt = null;
-                        start = null;
-                    }
-                };
-                gamepad.onReleased(Gamepad.Xbox.START, start);
+        Game.window().getRenderComponent().fadeOut(300);
+        Game.loop().perform(300, () -> {
+            Game.screens().display("INGAME-SCREEN");
+            // a remote game enters the world once the server said which room it is in, see NetClient
+            String server = System.getProperty("game.connect");
+            if (server == null || !NetClient.connect(server)) {
+                enterWorld(PlayerManager.getCurrent().getSave().getMap());
             }
         });
+        //Game.loop().perform(500, () -> Game.audio().playMusic("211776__klankbeeld__piezo-cracking-oak-tree-131223-00.wav"));
+    }
 
-        Input.gamepads().onRemoved(gamepad -> {
-            if (currentGameType == GameType.COOP) {
-                //TODO: menu for reselecting controller? disconnect player? anything but this!
-                Player player = PlayerManager.getByGamepadId(gamepad.getId());
-                if (player != null) {
-                    player.removeController(IMovementController.class);
+    // puts the players into the world at the start of a game. the headless replay starts its run the same way
+    public static void enterWorld(String map) {
+        PlayerManager.slowPlayers(2);
+        spawn(map, "enter",1000);
+
+        String record = System.getProperty("game.record");
+        if (record != null) {
+            // which mobs think would depend on the viewport and the window size, the replay has neither
+            MobSystem.setLodEnabled(false);
+            InputRecorder.start(Path.of(record), worldSeed, map, PlayerManager.size());
+        }
+
+        String host = System.getProperty("game.host");
+        if (host != null && !NetClient.isConnected()) {
+            NetServer.start(host.isEmpty() ? NetProtocol.DEFAULT_PORT : Integer.parseInt(host));
+        }
+    }
+
+    private static void gamepadAdded(Gamepad gamepad) {
+        if (currentGameType == GameType.SINGLEPLAYER) {
+            PlayerGamepadController gamepadController = new PlayerGamepadController(
+                    PlayerManager.getCurrent());
+            PlayerManager.getCurrent().addController(gamepadController);
+
+        } else { // co-op
+            final double centerX = Game.window().getResolution().getWidth() / 2.0;
+            final double bottom = Game.window().getResolution().getHeight();
+
+            // add prompt for new player saying that they can join in.
+            prompt = new GuiComponent(centerX-(450.0/2), bottom - 120) {
+                @Override
+                protected void initializeComponents() {
+                    super.initializeComponents();
+                    this.setFont(FontTypes.GEN);
+                    this.getAppearance().setForeColor(new Color(255,255,255));
+                    this.setTextShadow(true);
+                    this.setTextShadowColor(new Color(0,0,0));
+                    this.setDimension(450, FontTypes.GEN.getSize());
+                    this.setText("Press start to join");
+                    this.setVisible(true);
                 }
-                Game.screens().display("MENU-CONTROLLERS");
+            };
+            Game.screens().get("INGAME-SCREEN").getComponents().add(prompt);
+
+            // add listener so new player can join in
+            start = new GamepadEvents.GamepadReleasedListener() {
+                @Override
+                public void released(GamepadEvent event) {
+                    final GamepadEvents.GamepadReleasedListener listener = this;
+                    InputQueue.post(() -> {
+                        if (start != listener) {
+                            return; // start pressed twice before the loop got to the first one
+                        }
+                        Game.screens().get("INGAME-SCREEN").getComponents().remove(prompt);
+                        Player player = PlayerManager.addPlayer("hoodie", "steve", gamepad.getId());
+                        InputRecorder.join(player.getId());
+                        Game.loop().perform(1, () -> gamepad.removeReleasedListener(Gamepad.Xbox.START, listener));
 
-            } else { // single player
-                PlayerManager.getCurrent().removeController(PlayerGamepadController.class);
+                        prompt = null;
+                        start = null;
+                    });
+                }
+            };
+            gamepad.onReleased(Gamepad.Xbox.START, start);
+        }
+    }
+
+    private static void gamepadRemoved(Gamepad gamepad) {
+        if (currentGameType == GameType.COOP) {
+            //TODO: menu for reselecting controller? disconnect player? anything but this!
+            Player player = PlayerManager.getByGamepadId(gamepad.getId());
+            if (player != null) {
+                player.removeController(IMovementController.class);
+                InputRecorder.leave(player.getId());
             }
-        });
+            Game.screens().display("MENU-CONTROLLERS");
 
-        Game.window().getRenderComponent().fadeOut(300);
-        Game.loop().perform(300, () -> {
-            Game.screens().display("INGAME-SCREEN");
-            PlayerManager.slowPlayers(2);
-            spawn(PlayerManager.getCurrent().getSave().getMap(), "enter",1000);
-        });
-        //Game.loop().perform(500, () -> Game.audio().playMusic("211776__klankbeeld__piezo-cracking-oak-tree-131223-00.wav"));
+        } else { // single player
+            PlayerManager.getCurrent().removeController(PlayerGamepadController.class);
+        }
     }
 
     public static String getRoomName() {
         return Game.world().environment().getMap().getName();
     }
 
+    public static MultiLockCamera getCamera() {
+        return camera;
+    }
+
     public static GameType getCurrentGameType() {
         return currentGameType;
     }
@@ -171,35 +232,51 @@ public final class GameManager {
         // spawn in player
         Spawnpoint enter = e.getSpawnpoint(spawnpointName);
         if (enter != null) {
-            for (int i = 0; i < PlayerManager.size(); i++) {
+            // ids have gaps once a player left, so go by the snapshot
+            Player[] players = PlayerManager.getSnapshot();
+            for (int i = 0; i < players.length; i++) {
                 enter.setSpawnOffsetY(7f*(float)i*Math.pow(-1,i));
-                enter.spawn(PlayerManager.get(i));
+                enter.spawn(players[i]);
             }
             Game.loop().perform(fade, PlayerManager::unFreezePlayers);
         } else {
             System.err.println("ERROR: no such spawnpoint: " + spawnpointName);
         }
 
-        // spawn in mobs
+        // spawn in mobs. only on the first visit, the room keeps its mobs after that.
+        // the spawnpoints come in the order of the map file, so numbering them gives every game playing the
+        // room the same net ids for the same mobs
+        int netId = 0;
         for (Spawnpoint spawnpoint : e.getSpawnpoints("mob")) {
-            spawnpoint.spawn(createMob(spawnpoint.getName()));
+            Mob mob = createMob(spawnpoint.getName());
+            if (mob != null) {
+                mob.setNetId(netId);
+                spawnpoint.spawn(mob);
+            }
             spawnpoint.removeTag("mob");
+            netId++;
         }
     }
 
+    public static long getWorldSeed() {
+        return worldSeed;
+    }
+
+    // only affects mobs spawned after the call
+    public static void setWorldSeed(long seed) {
+        worldSeed = seed;
+    }
+
     public static void spawnIn(Player player) {
+        // players added before a room is loaded get placed by spawn() instead
+        if (Game.world().environment() == null) {
+            return;
+        }
         Game.world().environment().getSpawnpoint("enter").spawn(player);
     }
 
     private static Mob createMob(String name) {
-        Mob mob;
-        switch (name) {
-            case "eye" -> mob = new EyeballMob();
-            default -> {
-                System.out.println("WARNING: name of mob to create was invalid");
-                mob = null;
-            }
-        }
-        return mob;
+        // mob types are defined in mobs.xml
+        return MobRegistry.create(name);
     }
 }
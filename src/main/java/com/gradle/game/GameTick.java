@@ -0,0 +1,57 @@
+package com.gradle.game;
+
+import com.gradle.game.entities.mobs.MobSystem;
+import com.gradle.game.input.InputQueue;
+import com.gradle.game.net.NetClient;
+import com.gradle.game.net.NetServer;
+import com.gradle.game.profiling.AllocationMeter;
+import com.gradle.game.profiling.TickProfiler;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+
+// The one updateable our own systems run from, so they run in the same order every tick:
+// the engine's physics first, so the collision boxes are where the entities ended up last tick,
+// then the input posted since the last tick, then the network, then the mobs.
+// Game.loop() keeps what is attached to it in an unordered set, so systems attached one by one ran in
+// whatever order the set handed them out.
+//
+// Only our systems and the physics are ordered. The engine's other updateables (entity controllers, the world) and the player
+// controllers are still attached to the loop on their own and run before or after this.
+public final class GameTick implements IUpdateable {
+
+    private static final GameTick instance = new GameTick();
+
+    private static IUpdateable[] systems = new IUpdateable[0];
+    private static boolean initialized = false;
+
+    private GameTick() {
+    }
+
+    // call right after Game.init(). the systems are profiled one by one, so this isn't attached through the profiler
+    public static void init() {
+        if (initialized) {
+            return;
+        }
+        systems = new IUpdateable[] {
+                TickProfiler.profile(InputQueue.instance()),
+                TickProfiler.profile(NetClient.instance()),
+                TickProfiler.profile(NetServer.instance()),
+                TickProfiler.profile(MobSystem.instance())
+        };
+        // Game.init() attached the physics on its own
+        Game.loop().detach(Game.physics());
+        Game.loop().attach(instance);
+        initialized = true;
+    }
+
+    @Override
+    public void update() {
+        // rebuilds its lists of collision boxes every tick, that's the engine's allocation
+        AllocationMeter.enterEngine();
+        Game.physics().update();
+        AllocationMeter.exitEngine();
+        for (IUpdateable system : systems) {
+            system.update();
+        }
+    }
+}
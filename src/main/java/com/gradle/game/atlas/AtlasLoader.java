@@ -0,0 +1,94 @@
+package com.gradle.game.atlas;
+
+import de.gurkenlabs.litiengine.resources.Resources;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+
+// Loads game data packed by AtlasPacker: the stripped .litidata goes through the engine as usual, then every
+// packed sprite is registered as a spritesheet on its region of the atlas. Regions are sub images, they share
+// the page's pixels, so a page is decoded once and animations draw from it like from any other spritesheet.
+// The build packs game.litidata into the resources (processResources runs packAtlas), so the atlas is looked up
+// on the classpath like the other resources, and in the working directory after that.
+// Without packed data the original file is loaded, so running from an IDE without the build still works.
+public final class AtlasLoader {
+    private AtlasLoader() {
+    }
+
+    // resource path of the atlas pages and index
+    public static final String ATLAS_DIRECTORY = System.getProperty("game.atlas", "atlas");
+
+    public static void load(String litidata) {
+        String name = AtlasPacker.baseName(Path.of(litidata));
+        URL index = Resources.getLocation(ATLAS_DIRECTORY + "/" + name + AtlasPacker.INDEX_SUFFIX);
+        // with the resources it was packed from, its maps find their tilesets relative to it
+        URL stripped = Resources.getLocation(name + AtlasPacker.STRIPPED_SUFFIX);
+        if (!exists(index) || !exists(stripped)) {
+            System.out.println("WARNING: no atlas for " + litidata + " in " + ATLAS_DIRECTORY
+                    + ", loading the unpacked sprites. run \"gradlew processResources\" to pack them.");
+            Resources.load(litidata);
+            return;
+        }
+
+        Resources.load(stripped);
+        try {
+            int regions = loadIndex(index);
+            System.out.println("Loaded " + regions + " sprites from the atlas in " + ATLAS_DIRECTORY);
+        } catch (Exception e) {
+            // the stripped data is already in, the full file brings the missing sprites back
+            System.err.println("ERROR: reading the atlas " + index + " failed, loading " + litidata + " instead: " + e);
+            Resources.load(litidata);
+        }
+    }
+
+    // getLocation() falls back to a file url whether or not the file is there
+    private static boolean exists(URL location) {
+        if (location == null) {
+            return false;
+        }
+        try (InputStream stream = location.openStream()) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int loadIndex(URL index) throws Exception {
+        Document document;
+        try (InputStream stream = index.openStream()) {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(stream);
+        }
+        NodeList pages = document.getElementsByTagName("page");
+        int count = 0;
+        for (int i = 0; i < pages.getLength(); i++) {
+            Element page = (Element) pages.item(i);
+            BufferedImage atlas = ImageIO.read(Resources.getLocation(ATLAS_DIRECTORY + "/" + page.getAttribute("file")));
+            if (atlas == null) {
+                throw new IllegalStateException("can't read atlas page " + page.getAttribute("file"));
+            }
+
+            NodeList regions = page.getElementsByTagName("region");
+            for (int j = 0; j < regions.getLength(); j++) {
+                Element region = (Element) regions.item(j);
+                BufferedImage image = atlas.getSubimage(
+                        intValue(region, "x"), intValue(region, "y"), intValue(region, "width"), intValue(region, "height"));
+                Resources.spritesheets().load(image, region.getAttribute("name"),
+                        intValue(region, "frameWidth"), intValue(region, "frameHeight"));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int intValue(Element element, String attribute) {
+        return Integer.parseInt(element.getAttribute(attribute));
+    }
+}
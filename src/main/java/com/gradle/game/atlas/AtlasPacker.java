@@ -0,0 +1,273 @@
+package com.gradle.game.atlas;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Build step that packs the sprites of a .litidata file into a few atlas images, so the game decodes a couple
+// of PNGs at startup instead of one base64 PNG per sprite. Writes, into the output directory:
+//   <name>-0.png, <name>-1.png, ...   the atlas pages
+//   <name>.atlas.xml                  where every sprite is on which page, read by AtlasLoader
+//   <name>.atlas.litidata             the input without the packed sprites
+// AtlasLoader picks these up instead of the original file when they are there. The maps in the stripped file
+// name their tilesets relative to it, so it has to end up next to them, see processResources in build.gradle.
+//
+// Sprites are shelf packed: sorted by height, placed left to right on rows as high as their first sprite.
+// Sprites that tilesets use as their image and sprites with keyframe timings stay in the litidata, the
+// engine looks those up in its own ways.
+//
+// usage: AtlasPacker [--in=game.litidata] [--out=atlas] [--page=1024]
+// or:    gradlew packAtlas, which processResources runs to put the atlas in the resources
+public class AtlasPacker {
+
+    static final String INDEX_SUFFIX = ".atlas.xml";
+    static final String STRIPPED_SUFFIX = ".atlas.litidata";
+    private static final int PADDING = 1; // keeps neighbours from bleeding in when a sprite is scaled
+
+    private Path input = Path.of("game.litidata");
+    private Path output = Path.of("atlas");
+    private int pageSize = 1024;
+
+    private static final class Sprite {
+        final Element element;
+        final String name;
+        final int frameWidth;
+        final int frameHeight;
+        final BufferedImage image;
+        int page;
+        int x;
+        int y;
+
+        Sprite(Element element, String name, int frameWidth, int frameHeight, BufferedImage image) {
+            this.element = element;
+            this.name = name;
+            this.frameWidth = frameWidth;
+            this.frameHeight = frameHeight;
+            this.image = image;
+        }
+    }
+
+    public static void main(String[] args) {
+        AtlasPacker packer = new AtlasPacker();
+        packer.parse(args);
+        try {
+            packer.pack();
+        } catch (Exception e) {
+            System.err.println("ERROR: packing " + packer.input + " failed: " + e);
+            System.exit(1);
+        }
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                System.out.println("WARNING: ignoring argument " + arg);
+                continue;
+            }
+            switch (pair[0]) {
+                case "--in" -> input = Path.of(pair[1]);
+                case "--out" -> output = Path.of(pair[1]);
+                case "--page" -> pageSize = Integer.parseInt(pair[1]);
+                default -> System.out.println("WARNING: unknown argument " + pair[0]);
+            }
+        }
+    }
+
+    private void pack() throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input.toFile());
+        Set<String> tilesetImages = tilesetImages(document);
+        List<Sprite> sprites = readSprites(document, tilesetImages);
+        if (sprites.isEmpty()) {
+            System.out.println("WARNING: " + input + " has no sprites to pack.");
+            return;
+        }
+
+        List<int[]> pages = place(sprites); // width and height used on every page
+        String name = baseName(input);
+        Files.createDirectories(output);
+
+        for (int page = 0; page < pages.size(); page++) {
+            BufferedImage atlas = new BufferedImage(pages.get(page)[0], pages.get(page)[1], BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = atlas.createGraphics();
+            for (Sprite sprite : sprites) {
+                if (sprite.page == page) {
+                    g.drawImage(sprite.image, sprite.x, sprite.y, null);
+                }
+            }
+            g.dispose();
+            ImageIO.write(atlas, "png", output.resolve(pageFile(name, page)).toFile());
+        }
+
+        writeIndex(name, sprites, pages.size());
+
+        // the rest of the data stays as it was
+        for (Sprite sprite : sprites) {
+            sprite.element.getParentNode().removeChild(sprite.element);
+        }
+        write(document, output.resolve(name + STRIPPED_SUFFIX).toFile());
+
+        long before = Files.size(input);
+        long after = Files.size(output.resolve(name + STRIPPED_SUFFIX));
+        for (int page = 0; page < pages.size(); page++) {
+            after += Files.size(output.resolve(pageFile(name, page)));
+        }
+        System.out.printf("Packed %d sprites into %d page(s) in %s, %d bytes instead of %d.%n",
+                sprites.size(), pages.size(), output, after, before);
+    }
+
+    // tilesets name their image by file ("mansion.png"), the sprite holding it goes by the name without extension
+    private static Set<String> tilesetImages(Document document) {
+        Set<String> names = new HashSet<>();
+        NodeList images = document.getElementsByTagName("image");
+        for (int i = 0; i < images.getLength(); i++) {
+            Element image = (Element) images.item(i);
+            String source = image.getAttribute("source");
+            if (!source.isEmpty()) {
+                String file = new File(source).getName();
+                int dot = file.lastIndexOf('.');
+                names.add(dot < 0 ? file : file.substring(0, dot));
+            }
+        }
+        return names;
+    }
+
+    private static List<Sprite> readSprites(Document document, Set<String> tilesetImages) throws IOException {
+        List<Sprite> sprites = new ArrayList<>();
+        NodeList elements = document.getElementsByTagName("sprite");
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            String name = element.getAttribute("name");
+            if (tilesetImages.contains(name) || element.getElementsByTagName("keyframes").getLength() > 0) {
+                System.out.println("Leaving " + name + " in the litidata.");
+                continue;
+            }
+            Node data = element.getElementsByTagName("image").item(0);
+            if (data == null) {
+                continue;
+            }
+            byte[] png = Base64.getMimeDecoder().decode(data.getTextContent().trim());
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                System.out.println("WARNING: sprite " + name + " isn't a readable image, leaving it in the litidata.");
+                continue;
+            }
+            sprites.add(new Sprite(element, name,
+                    Integer.parseInt(element.getAttribute("width")), Integer.parseInt(element.getAttribute("height")), image));
+        }
+        return sprites;
+    }
+
+    // shelf packing, tallest first. a sprite too big for a page gets a page of its own
+    private List<int[]> place(List<Sprite> sprites) {
+        sprites.sort(Comparator.comparingInt((Sprite s) -> s.image.getHeight()).reversed().thenComparing(s -> s.name));
+        List<int[]> pages = new ArrayList<>();
+        int page = -1;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int x = 0;
+
+        for (Sprite sprite : sprites) {
+            int width = sprite.image.getWidth();
+            int height = sprite.image.getHeight();
+            if (width > pageSize || height > pageSize) {
+                pages.add(new int[]{width, height});
+                sprite.page = pages.size() - 1;
+                sprite.x = 0;
+                sprite.y = 0;
+                page = -1; // carry on on a fresh page, the big one is full
+                continue;
+            }
+
+            if (page != -1 && x + width > pageSize) {
+                // next shelf
+                shelfY += shelfHeight + PADDING;
+                shelfHeight = 0;
+                x = 0;
+            }
+            if (page == -1 || shelfY + height > pageSize) {
+                pages.add(new int[]{0, 0});
+                page = pages.size() - 1;
+                shelfY = 0;
+                shelfHeight = 0;
+                x = 0;
+            }
+
+            sprite.page = page;
+            sprite.x = x;
+            sprite.y = shelfY;
+            x += width + PADDING;
+            shelfHeight = Math.max(shelfHeight, height);
+            int[] used = pages.get(page);
+            used[0] = Math.max(used[0], sprite.x + width);
+            used[1] = Math.max(used[1], sprite.y + height);
+        }
+        return pages;
+    }
+
+    private void writeIndex(String name, List<Sprite> sprites, int pages) throws Exception {
+        Document index = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element atlas = index.createElement("atlas");
+        atlas.setAttribute("version", "1");
+        index.appendChild(atlas);
+        for (int page = 0; page < pages; page++) {
+            Element pageElement = index.createElement("page");
+            pageElement.setAttribute("file", pageFile(name, page));
+            atlas.appendChild(pageElement);
+            for (Sprite sprite : sprites) {
+                if (sprite.page != page) {
+                    continue;
+                }
+                Element region = index.createElement("region");
+                region.setAttribute("name", sprite.name);
+                region.setAttribute("x", Integer.toString(sprite.x));
+                region.setAttribute("y", Integer.toString(sprite.y));
+                region.setAttribute("width", Integer.toString(sprite.image.getWidth()));
+                region.setAttribute("height", Integer.toString(sprite.image.getHeight()));
+                region.setAttribute("frameWidth", Integer.toString(sprite.frameWidth));
+                region.setAttribute("frameHeight", Integer.toString(sprite.frameHeight));
+                pageElement.appendChild(region);
+            }
+        }
+        write(index, output.resolve(name + INDEX_SUFFIX).toFile());
+    }
+
+    private static void write(Document document, File file) throws Exception {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.transform(new DOMSource(document), new StreamResult(file));
+    }
+
+    static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    static String pageFile(String name, int page) {
+        return name + "-" + page + ".png";
+    }
+}
@@ -1,40 +1,58 @@
 package com.gradle.game.entities;
 
-import de.gurkenlabs.litiengine.Game;
+import com.gradle.game.gui.ParallaxLayer;
+import com.gradle.game.gui.ParallaxRenderer;
 import de.gurkenlabs.litiengine.entities.AnimationInfo;
 import de.gurkenlabs.litiengine.entities.CollisionInfo;
-import de.gurkenlabs.litiengine.entities.IEntity;
 import de.gurkenlabs.litiengine.entities.Prop;
-import de.gurkenlabs.litiengine.graphics.ICamera;
-
-import java.awt.geom.Point2D;
-import java.awt.geom.Point2D.Double;
-
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+import de.gurkenlabs.litiengine.resources.Resources;
+
+// Marks a background in the map. The prop itself is never drawn, it hands its image to the ParallaxRenderer
+// while its room is loaded.
+// Optional custom properties: "parallax" (0 sticks to the screen like the old night sky, 1 moves with the room),
+// "repeatX" and "repeatY". A layer that moves with the room sits where the prop is, one stuck to the screen
+// sits in its corner, anything in between scales the prop's position by the factor.
 @CollisionInfo(collision = false)
 @AnimationInfo(spritePrefix = "prop-nightsky")
 public class BackWall extends Prop {
 
-    //position of upper-left corner with regards to player
-    private static final double offsetX = 0.0;
-    private static final double offsetY = 0.0;
-    private static final ICamera referenceViewport = Game.world().camera();
-
-//    public BackWall(IEntity e) {
-//        super("prop-nightsky");
-//        this.referenceEntity = e;
-//    }
+    private ParallaxLayer layer = null;
 
     public BackWall(String spritesheetName) {
         super(spritesheetName);
-        //this.referenceEntity = Player.instance();
+        this.setVisible(false);
     }
 
-    public ICamera getReferenceViewport() {
-        return referenceViewport;
+    // map properties are only there once the prop is in its room, so the layer is made here and not in the constructor
+    @Override
+    public void loaded(Environment environment) {
+        super.loaded(environment);
+        if (layer != null) {
+            return;
+        }
+        Spritesheet sheet = Resources.spritesheets().get("prop-" + this.getSpritesheetName());
+        if (sheet == null) {
+            sheet = Resources.spritesheets().get(this.getSpritesheetName());
+        }
+        if (sheet == null) {
+            System.out.println("WARNING: no image for background " + this.getSpritesheetName());
+            return;
+        }
+
+        float factor = this.getProperties().getFloatValue("parallax", 0f);
+        layer = new ParallaxLayer(sheet.getImage(), factor, factor, this.getX() * factor, this.getY() * factor,
+                this.getProperties().getBoolValue("repeatX"), this.getProperties().getBoolValue("repeatY"));
+        ParallaxRenderer.add(layer);
     }
 
     @Override
-    public Point2D getLocation() {
-        return getReferenceViewport().getMapLocation(new Double(offsetX, offsetY));
+    public void removed(Environment environment) {
+        super.removed(environment);
+        if (layer != null) {
+            ParallaxRenderer.remove(layer);
+            layer = null;
+        }
     }
 }
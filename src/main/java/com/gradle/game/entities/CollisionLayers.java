@@ -0,0 +1,63 @@
+package com.gradle.game.entities;
+
+import com.gradle.game.profiling.AllocationMeter;
+import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+import de.gurkenlabs.litiengine.physics.CollisionEvent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Collision layer bits, and the one collision listener every layered entity uses.
+// The engine tells an entity about everything it bumps into; the listener drops anything outside the
+// entity's mask with a bit test before any handler code runs, and hands the handler the entity it
+// actually cares about, already cast.
+public final class CollisionLayers {
+    private CollisionLayers() {
+    }
+
+    public static final int NONE = 0;
+    public static final int PLAYER = 1;
+    public static final int MOB = 1 << 1;
+    public static final int TRIGGER = 1 << 2; // doors and other things that only react to being walked into
+    public static final int ALL = ~0;
+
+    // whether a collision between the two should reach the receiver's handler
+    public static boolean accepts(ILayeredEntity receiver, ICollisionEntity other) {
+        return (layerOf(other) & receiver.getCollisionMask()) != 0;
+    }
+
+    // entities that don't say otherwise are on no layer, so layered entities ignore them
+    public static int layerOf(ICollisionEntity entity) {
+        return entity instanceof ILayeredEntity layered ? layered.getCollisionLayer() : NONE;
+    }
+
+    // calls handler with the first entity of the collision that is on one of owner's mask layers and of the given type.
+    // the handler runs at most once per collision
+    public static <T extends ICollisionEntity> void onCollision(ILayeredEntity owner, Class<T> type, Consumer<T> handler) {
+        // the engine calls this from inside its physics, what it allocates is still ours
+        owner.onCollision(e -> {
+            AllocationMeter.enterOwn();
+            ICollisionEntity target = find(owner, type, e);
+            if (target != null) {
+                handler.accept(type.cast(target));
+            }
+            AllocationMeter.exitOwn();
+        });
+    }
+
+    private static ICollisionEntity find(ILayeredEntity owner, Class<?> type, CollisionEvent e) {
+        ICollisionEntity source = (ICollisionEntity) e.getSource();
+        if (source != owner && accepts(owner, source) && type.isInstance(source)) {
+            return source;
+        }
+        // by index, a for-each makes an iterator for every collision
+        List<ICollisionEntity> involved = e.getInvolvedEntities();
+        for (int i = 0; i < involved.size(); i++) {
+            ICollisionEntity entity = involved.get(i);
+            if (entity != owner && accepts(owner, entity) && type.isInstance(entity)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+}
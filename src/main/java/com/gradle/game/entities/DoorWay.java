@@ -3,6 +3,7 @@ package com.gradle.game.entities;
 import com.gradle.game.GameManager;
 import com.gradle.game.entities.player.Player;
 import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.net.NetClient;
 import de.gurkenlabs.litiengine.Direction;
 import de.gurkenlabs.litiengine.Game;
 //import de.gurkenlabs.litiengine.IUpdateable;
@@ -15,7 +16,7 @@ import de.gurkenlabs.litiengine.graphics.animation.IEntityAnimationController;
 
 @CollisionInfo(collision = true)
 @AnimationInfo(spritePrefix = "prop-doorway")
-public class DoorWay extends Prop {
+public class DoorWay extends Prop implements ILayeredEntity {
 
     //private String mapToOpen;
     //private Direction facing;
@@ -29,23 +30,23 @@ public class DoorWay extends Prop {
 //            this.facing = Direction.DOWN;
 //        }
 
-        // set event that occurs on player collision
-        // TODO: specify collision with player only, not any entity
-        this.onCollision(e -> {
-            if (e.getSource().getClass() == Player.class) {
-                PlayerManager.freezePlayers();
-                Game.window().getRenderComponent().fadeOut(750);
+        // set event that occurs on player collision. anything else walking into the door is dropped by the layer check
+        CollisionLayers.onCollision(this, Player.class, player -> {
+            if (NetClient.isConnected()) {
+                return; // the server changes rooms for everybody, NetClient follows
+            }
+            PlayerManager.freezePlayers();
+            Game.window().getRenderComponent().fadeOut(750);
 
-                Game.loop().perform(750, () -> {
+            Game.loop().perform(750, () -> {
 
-                    // remove player before unloading the environment or the instance's animation controller will be disposed
-                    Game.world().environment().removeAll(PlayerManager.getAll()); //TODO: replace with playermanager function
+                // remove player before unloading the environment or the instance's animation controller will be disposed
+                Game.world().environment().removeAll(PlayerManager.getAll()); //TODO: replace with playermanager function
 
-                    //Load an environment, then spawn the player
-                    String room = GameManager.getRoomName();
-                    GameManager.spawn(getMapToOpen(), room+"-door");
-                });
-            }
+                //Load an environment, then spawn the player
+                String room = GameManager.getRoomName();
+                GameManager.spawn(getMapToOpen(), room+"-door");
+            });
         });
     }
 
@@ -66,6 +67,16 @@ public class DoorWay extends Prop {
         return controller;
     }
 
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayers.TRIGGER;
+    }
+
+    @Override
+    public int getCollisionMask() {
+        return CollisionLayers.PLAYER;
+    }
+
     private String getMapToOpen() {
         return this.getProperties().getStringValue("destination");
     }
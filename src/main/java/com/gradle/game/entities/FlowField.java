@@ -0,0 +1,138 @@
+package com.gradle.game.entities;
+
+import java.util.Arrays;
+
+// Breadth first search over the tiles of a room, outward from a set of source tiles (the tiles the players
+// stand on). Every reachable tile ends up with the step to take towards the closest source, so any number of
+// mobs can find their way with one array lookup each, instead of every mob searching on its own.
+// Steps are direction indices: 0 down, 1 right, 2 up, 3 left, same order as MobSystem uses.
+// Not thread safe to rebuild, but reading steps from several threads is fine while it isn't being rebuilt.
+public class FlowField {
+
+    public static final byte NO_STEP = -1;
+
+    private static final int[] STEP_X = {0, 1, 0, -1};
+    private static final int[] STEP_Y = {1, 0, -1, 0};
+
+    private int columns = 0;
+    private int rows = 0;
+    private double tileWidth = 1;
+    private double tileHeight = 1;
+
+    private boolean[] blocked = new boolean[0];
+    private int[] distance = new int[0];
+    private byte[] step = new byte[0];
+    private int[] queue = new int[0];
+
+    private int[] sources = new int[8];
+    private int sourceCount = 0;
+
+    // sizes the field for a room and clears it. nothing is blocked and there are no sources afterwards
+    public void resize(int columns, int rows, double tileWidth, double tileHeight) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.blocked = new boolean[columns * rows];
+        this.distance = new int[columns * rows];
+        this.step = new byte[columns * rows];
+        this.queue = new int[columns * rows];
+        this.sourceCount = 0;
+        Arrays.fill(step, NO_STEP);
+    }
+
+    // call rebuild() afterwards if the field is in use
+    public void setBlocked(int column, int row, boolean value) {
+        if (column >= 0 && column < columns && row >= 0 && row < rows) {
+            blocked[row * columns + column] = value;
+        }
+    }
+
+    public boolean isBlocked(int tile) {
+        return blocked[tile];
+    }
+
+    // tile index under a point in the room, or -1 if the point is outside it
+    public int tileOf(double x, double y) {
+        int column = (int) Math.floor(x / tileWidth);
+        int row = (int) Math.floor(y / tileHeight);
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    // sets the tiles to find the way to. only rebuilds when they differ from the last call, so it can be
+    // called every tick and costs next to nothing until a player steps onto another tile.
+    // returns whether the field was rebuilt
+    public boolean setSources(int[] tiles, int count) {
+        if (count == sourceCount) {
+            boolean same = true;
+            for (int i = 0; i < count; i++) {
+                if (tiles[i] != sources[i]) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) {
+                return false;
+            }
+        }
+
+        if (sources.length < count) {
+            sources = new int[count];
+        }
+        System.arraycopy(tiles, 0, sources, 0, count);
+        sourceCount = count;
+        rebuild();
+        return true;
+    }
+
+    public void rebuild() {
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        Arrays.fill(step, NO_STEP);
+
+        int head = 0;
+        int tail = 0;
+        for (int s = 0; s < sourceCount; s++) {
+            int tile = sources[s];
+            if (tile >= 0 && tile < distance.length && distance[tile] != 0) {
+                distance[tile] = 0;
+                queue[tail++] = tile;
+            }
+        }
+
+        while (head < tail) {
+            int tile = queue[head++];
+            int column = tile % columns;
+            int row = tile / columns;
+            for (int d = 0; d < STEP_X.length; d++) {
+                int nextColumn = column + STEP_X[d];
+                int nextRow = row + STEP_Y[d];
+                if (nextColumn < 0 || nextColumn >= columns || nextRow < 0 || nextRow >= rows) {
+                    continue;
+                }
+                int next = nextRow * columns + nextColumn;
+                if (blocked[next] || distance[next] != Integer.MAX_VALUE) {
+                    continue;
+                }
+                distance[next] = distance[tile] + 1;
+                step[next] = (byte) ((d + 2) & 3); // back the way the search came
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    // direction index of the step towards the closest source from the point, or NO_STEP if there is no way
+    // there or the point already is on a source tile
+    public int getStep(double x, double y) {
+        int tile = tileOf(x, y);
+        return tile == -1 ? NO_STEP : step[tile];
+    }
+
+    // number of steps to the closest source, or Integer.MAX_VALUE if it can't be reached
+    public int getDistance(double x, double y) {
+        int tile = tileOf(x, y);
+        return tile == -1 ? Integer.MAX_VALUE : distance[tile];
+    }
+}
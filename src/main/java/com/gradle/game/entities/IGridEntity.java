@@ -0,0 +1,12 @@
+package com.gradle.game.entities;
+
+import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+
+// Entities that can be put in a SpatialHashGrid. The grid keeps the entity's cell on the entity itself,
+// so moving it doesn't need a lookup. An entity can only be in one grid at a time.
+public interface IGridEntity extends ICollisionEntity {
+
+    int getGridCell();
+
+    void setGridCell(int cell);
+}
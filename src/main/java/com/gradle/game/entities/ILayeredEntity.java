@@ -0,0 +1,12 @@
+package com.gradle.game.entities;
+
+import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+
+// Entities that take part in collision layer filtering, see CollisionLayers.
+// The layer is what the entity is, the mask is what it wants to hear about.
+public interface ILayeredEntity extends ICollisionEntity {
+
+    int getCollisionLayer();
+
+    int getCollisionMask();
+}
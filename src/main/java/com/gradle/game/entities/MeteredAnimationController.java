@@ -0,0 +1,27 @@
+package com.gradle.game.entities;
+
+import com.gradle.game.profiling.AllocationMeter;
+import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.graphics.animation.Animation;
+import de.gurkenlabs.litiengine.graphics.animation.CreatureAnimationController;
+
+// The engine's creature animations, with their updates marked as engine work for the AllocationMeter.
+// Every update builds the names of the sprites for the creature's state from strings, a few hundred bytes per
+// creature per tick, and that isn't ours to fix.
+public class MeteredAnimationController<T extends Creature> extends CreatureAnimationController<T> {
+
+    public MeteredAnimationController(T entity, boolean useFlippedSpritesAsFallback) {
+        super(entity, useFlippedSpritesAsFallback);
+    }
+
+    public MeteredAnimationController(T entity, boolean useFlippedSpritesAsFallback, Animation defaultAnimation, Animation... animations) {
+        super(entity, useFlippedSpritesAsFallback, defaultAnimation, animations);
+    }
+
+    @Override
+    public void update() {
+        AllocationMeter.enterEngine();
+        super.update();
+        AllocationMeter.exitEngine();
+    }
+}
@@ -0,0 +1,155 @@
+package com.gradle.game.entities;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+
+// Uniform grid over the map for "what is near here" queries.
+// Entities are filed under the cell holding the center of their collision box, and queries are padded by
+// the largest collision box seen, so anything whose box touches the query area is found.
+// Entities outside the map are filed under the nearest edge cell.
+// Not thread safe, only use it from the game loop thread.
+public class SpatialHashGrid<T extends IGridEntity> {
+
+    public static final int NO_CELL = -1;
+
+    private final int cellSize;
+    private int columns = 1;
+    private int rows = 1;
+    private ArrayList<T>[] cells;
+    private int size = 0;
+
+    private double padX = 0;
+    private double padY = 0;
+
+    public SpatialHashGrid(int cellSize) {
+        this.cellSize = cellSize;
+        this.cells = newCells(1);
+    }
+
+    // sizes the grid to cover a map of the given pixel size. drops everything in it.
+    public void resize(double width, double height) {
+        this.clear();
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = newCells(columns * rows);
+        this.size = 0;
+        this.padX = 0;
+        this.padY = 0;
+    }
+
+    public void clear() {
+        for (ArrayList<T> cell : cells) {
+            for (int i = 0; i < cell.size(); i++) {
+                cell.get(i).setGridCell(NO_CELL);
+            }
+            cell.clear();
+        }
+        size = 0;
+    }
+
+    // call whenever the entity moves. adds it if it isn't in the grid yet.
+    public void update(T entity) {
+        Rectangle2D box = entity.getCollisionBox();
+        int cell = cellOf(box.getCenterX(), box.getCenterY());
+        int current = entity.getGridCell();
+
+        padX = Math.max(padX, box.getWidth() / 2.0);
+        padY = Math.max(padY, box.getHeight() / 2.0);
+
+        if (current == cell) {
+            return;
+        }
+        if (current != NO_CELL && cells[current].remove(entity)) {
+            size--;
+        }
+        cells[cell].add(entity);
+        entity.setGridCell(cell);
+        size++;
+    }
+
+    public void remove(T entity) {
+        int current = entity.getGridCell();
+        if (current != NO_CELL && cells[current].remove(entity)) {
+            size--;
+        }
+        entity.setGridCell(NO_CELL);
+    }
+
+    // adds every entity whose collision box intersects the area to out, and returns out
+    public <C extends Collection<? super T>> C query(Rectangle2D area, C out) {
+        int minX = column(area.getMinX() - padX);
+        int maxX = column(area.getMaxX() + padX);
+        int minY = row(area.getMinY() - padY);
+        int maxY = row(area.getMaxY() + padY);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                ArrayList<T> cell = cells[y * columns + x];
+                for (int i = 0; i < cell.size(); i++) {
+                    T entity = cell.get(i);
+                    if (area.intersects(entity.getCollisionBox())) {
+                        out.add(entity);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    // adds every entity whose collision box intersects the shape (a vision cone, for example) to out
+    public <C extends Collection<? super T>> C query(Shape shape, C out) {
+        return query(shape, shape.getBounds2D(), out);
+    }
+
+    // same as query(Shape, out), for callers that already have the shape's bounds and don't want them rebuilt
+    public <C extends Collection<? super T>> C query(Shape shape, Rectangle2D bounds, C out) {
+        int minX = column(bounds.getMinX() - padX);
+        int maxX = column(bounds.getMaxX() + padX);
+        int minY = row(bounds.getMinY() - padY);
+        int maxY = row(bounds.getMaxY() + padY);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                ArrayList<T> cell = cells[y * columns + x];
+                for (int i = 0; i < cell.size(); i++) {
+                    T entity = cell.get(i);
+                    if (shape.intersects(entity.getCollisionBox())) {
+                        out.add(entity);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int cellOf(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / cellSize)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayList<T>[] newCells(int count) {
+        ArrayList<T>[] cells = new ArrayList[count];
+        for (int i = 0; i < count; i++) {
+            cells[i] = new ArrayList<>(4);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,87 @@
+package com.gradle.game.entities;
+
+import com.gradle.game.entities.mobs.Mob;
+import com.gradle.game.entities.player.Player;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.CollisionBox;
+import de.gurkenlabs.litiengine.entities.Prop;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.environment.tilemap.ITile;
+import de.gurkenlabs.litiengine.environment.tilemap.ITileLayer;
+
+import java.awt.geom.Rectangle2D;
+
+// Grid of the mobs in the current room, kept up to date by their setLocation(), and the way to the players
+// from every tile of the room. There are only ever a few players, MobSystem reads them from PlayerManager.
+public final class SpatialIndex {
+    private SpatialIndex() {
+    }
+
+    public static final int TILE_SIZE = 32;
+
+    // tile layers with this custom property set to true block every tile that isn't empty
+    public static final String COLLISION_LAYER_PROPERTY = "collision";
+
+    public static final SpatialHashGrid<Mob> MOBS = new SpatialHashGrid<>(TILE_SIZE);
+
+    // sources are the players' tiles, set by MobSystem every tick
+    public static final FlowField PLAYER_FLOW = new FlowField();
+
+    public static void init() {
+        // rooms can differ in size, so rebuild the grid for every room before anything is spawned in it
+        Game.world().onLoaded(e -> {
+            IMap map = e.getMap();
+            MOBS.resize(map.getSizeInPixels().getWidth(), map.getSizeInPixels().getHeight());
+            buildFlowField(e);
+        });
+    }
+
+    // marks the tiles nothing can walk through: tiles of collision layers and tiles under the room's
+    // collision boxes and solid props. props added after the room loaded aren't seen
+    private static void buildFlowField(Environment e) {
+        IMap map = e.getMap();
+        int columns = map.getWidth();
+        int rows = map.getHeight();
+        double tileWidth = map.getTileWidth();
+        double tileHeight = map.getTileHeight();
+        PLAYER_FLOW.resize(columns, rows, tileWidth, tileHeight);
+
+        for (ITileLayer layer : map.getTileLayers()) {
+            if (!layer.getBoolValue(COLLISION_LAYER_PROPERTY)) {
+                continue;
+            }
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    ITile tile = layer.getTile(column, row);
+                    if (tile != null && tile.getGridId() != 0) {
+                        PLAYER_FLOW.setBlocked(column, row, true);
+                    }
+                }
+            }
+        }
+
+        for (CollisionBox box : e.getCollisionBoxes()) {
+            blockTiles(box.getCollisionBox(), tileWidth, tileHeight);
+        }
+        for (Prop prop : e.getProps()) {
+            if (prop.hasCollision()) {
+                blockTiles(prop.getCollisionBox(), tileWidth, tileHeight);
+            }
+        }
+        PLAYER_FLOW.rebuild();
+    }
+
+    // blocks the tiles the box covers more than a sliver of, so a thin wall on a tile edge doesn't block both sides
+    private static void blockTiles(Rectangle2D box, double tileWidth, double tileHeight) {
+        int minColumn = (int) Math.floor((box.getMinX() + 1) / tileWidth);
+        int maxColumn = (int) Math.floor((box.getMaxX() - 1) / tileWidth);
+        int minRow = (int) Math.floor((box.getMinY() + 1) / tileHeight);
+        int maxRow = (int) Math.floor((box.getMaxY() - 1) / tileHeight);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                PLAYER_FLOW.setBlocked(column, row, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.gradle.game.entities.mobs;
+
+import com.gradle.game.entities.player.Player;
+import com.gradle.game.gui.windows.BattleWindow;
+
+// A mob that starts a battle when a player walks into it. Made by MobPrototype for every entry in mobs.xml.
+public class BattleMob extends Mob {
+
+    public BattleMob(MobPrototype prototype) {
+        super(prototype);
+    }
+
+    @Override
+    protected void handleCollision(Player player) {
+
+        // freeze all players and begin battle (freezing is now handled by the battle window)
+        BattleWindow battleWindow = new BattleWindow(getPrototype().getDefinition().getBattle(), player.getId());
+        battleWindow.onSuspend(() -> {
+            this.setVelocity(getPrototype().getDefinition().getVelocity());
+        });
+
+        // temporarily add battle to player's active window deck
+        player.addTemporaryWindow(battleWindow);
+
+        // freeze monster
+        this.setVelocity(0);
+    }
+}
@@ -1,100 +1,199 @@
 package com.gradle.game.entities.mobs;
 
+import com.gradle.game.entities.CollisionLayers;
+import com.gradle.game.entities.IGridEntity;
+import com.gradle.game.entities.ILayeredEntity;
+import com.gradle.game.entities.MeteredAnimationController;
+import com.gradle.game.entities.SpatialHashGrid;
+import com.gradle.game.entities.SpatialIndex;
 import com.gradle.game.entities.player.Player;
-import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.profiling.AllocationMeter;
 import de.gurkenlabs.litiengine.Direction;
-import de.gurkenlabs.litiengine.Game;
-import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.Valign;
 import de.gurkenlabs.litiengine.entities.Creature;
-import de.gurkenlabs.litiengine.entities.ICollisionEntity;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+import de.gurkenlabs.litiengine.graphics.animation.Animation;
+import de.gurkenlabs.litiengine.graphics.animation.IEntityAnimationController;
 import de.gurkenlabs.litiengine.physics.IMovementController;
 
-import java.awt.*;
 import java.awt.geom.Point2D;
-import java.util.Optional;
-import java.util.Random;
-
-public abstract class Mob extends Creature implements IUpdateable {
-
-    protected Polygon view;
-    protected boolean alerted;
-
-
-    protected Mob(String spritesheetName) {
-        super(spritesheetName);
-        this.view = createView();
-        this.alerted = false;
-
-
-        this.onCollision(e -> {
-            if(e.getSource().getClass() == Player.class) {
-                this.handleCollision((Player)e.getSource());
-            } else {
-                Optional<ICollisionEntity> tmp = e.getInvolvedEntities().stream().filter(entity -> entity.getClass() == Player.class).findFirst();
-                //if(e.getInvolvedEntities().stream().anyMatch(entity -> entity.getClass() == Player.class)) {
-                if (tmp.isPresent()) {
-                    this.handleCollision((Player)tmp.get());
-                }
-            }
-//            Player player = null;
-//            for (ICollisionEntity entity : e.getInvolvedEntities()) {
-//                if (entity.getClass() == Player.class) {
-//                    player = (Player) entity;
-//                    System.out.println(player.getId());
-//                    break;
-//                }
-//            }
-//            if (player != null) {
-//                this.handleCollision(player);
-//            }
-        });
-
-        Game.loop().attach(this);
+import java.awt.geom.Rectangle2D;
+
+// The AI state of a mob lives in MobSystem while the mob is in a room; this class is the entity side of it.
+public abstract class Mob extends Creature implements IGridEntity, ILayeredEntity {
+
+    static final int NO_SLOT = -1;
+    public static final int NO_NET_ID = -1;
+
+    // line of sight for the current facing, relative to the mob's location. shared with every mob of the type
+    private VisionShape view;
+
+    private final MobPrototype prototype;
+
+    // what the mob looked like when it was built, so a pooled mob can be put back that way
+    private final String mobType;
+    private final float defaultVelocity;
+    private final Direction defaultFacing;
+
+    private int systemIndex = NO_SLOT;
+    private int netId = NO_NET_ID; // same for the same mob in every game playing the room, see GameManager.spawn()
+    private int gridCell = SpatialHashGrid.NO_CELL;
+    private final Rectangle2D.Double viewBounds = new Rectangle2D.Double();
+
+    // the type of the mob being built on this thread. the Creature constructor asks for the animation
+    // controller before prototype is set
+    private static final ThreadLocal<MobPrototype> constructing = new ThreadLocal<>();
+
+    protected Mob(MobPrototype prototype) {
+        super(beginConstruction(prototype));
+        constructing.remove();
+        this.prototype = prototype;
+        this.mobType = prototype.getName();
+
+        // what used to be the @EntityInfo and @CollisionInfo of each mob class
+        MobDefinition definition = prototype.getDefinition();
+        this.setSize(definition.getWidth(), definition.getHeight());
+        this.setCollisionBoxWidth(definition.getCollisionBoxWidth());
+        this.setCollisionBoxHeight(definition.getCollisionBoxHeight());
+        this.setCollisionBoxValign(Valign.DOWN);
+        this.setCollision(true);
+        this.setVelocity(definition.getVelocity());
+
+        this.view = prototype.getView(this.getFacingDirection());
+        this.defaultVelocity = this.getVelocity().get();
+        this.defaultFacing = this.getFacingDirection();
+
+        // mobs only care about players, bumping into other mobs or doors stops at the layer check
+        CollisionLayers.onCollision(this, Player.class, this::handleCollision);
+    }
+
+    private static String beginConstruction(MobPrototype prototype) {
+        constructing.set(prototype);
+        return prototype.getDefinition().getSpritesheet();
     }
 
     protected abstract void handleCollision(Player player);
 
-    protected abstract Polygon createView();
+    public MobPrototype getPrototype() {
+        return prototype;
+    }
+
+    public String getMobType() {
+        return mobType;
+    }
 
-    @Override
-    public void update() { // mob AI goes here
-        for (Player player : PlayerManager.getAll()) {
-            if (view.intersects(player.getCollisionBox())) {
-                this.alerted = true;
-            }
+    // called by MobPool once the mob is out of its room
+    void reset() {
+        this.setVelocity(defaultVelocity);
+        this.setFacingDirection(defaultFacing);
+    }
+
+    // mob AI is in MobSystem
+    public boolean isAlerted() {
+        return systemIndex != NO_SLOT && MobSystem.isAlerted(systemIndex);
+    }
+
+    public void setAlerted(boolean alerted) {
+        if (systemIndex != NO_SLOT) {
+            MobSystem.setAlerted(systemIndex, alerted);
         }
     }
 
+    public int getNetId() {
+        return netId;
+    }
+
+    public void setNetId(int netId) {
+        this.netId = netId;
+    }
+
+    int getSystemIndex() {
+        return systemIndex;
+    }
+
+    void setSystemIndex(int index) {
+        this.systemIndex = index;
+    }
+
     @Override
     public void setLocation(Point2D position) {
-        double deltaX = position.getX() - this.getX();
-        double deltaY = position.getY() - this.getY();
+        super.setLocation(position);
+        // usually called by the physics engine, but keeping the index and the system up to date is ours
+        AllocationMeter.enterOwn();
+        SpatialIndex.MOBS.update(this);
+        if (systemIndex != NO_SLOT) {
+            MobSystem.moved(systemIndex, this.getX(), this.getY());
+        }
+        AllocationMeter.exitOwn();
+    }
+
+    @Override
+    public void detachControllers() {
+        super.detachControllers();
+        SpatialIndex.MOBS.remove(this);
+    }
 
-        this.view.translate((int)deltaX, (int)deltaY);
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayers.MOB;
+    }
 
-        super.setLocation(position);
+    @Override
+    public int getCollisionMask() {
+        return CollisionLayers.PLAYER;
     }
 
     @Override
-    public void setFacingDirection(Direction facingDirection) {
-        float rotation = facingDirection.toAngle() - this.getFacingDirection().toAngle();
+    public int getGridCell() {
+        return gridCell;
+    }
 
-        // prep for view rotation
-        double cos = Math.cos(rotation);
-        double sin = Math.sin(rotation);
-        double x = this.getX();
-        double y = this.getY();
+    @Override
+    public void setGridCell(int cell) {
+        this.gridCell = cell;
+    }
 
-        // rotate view
-        for (int i = 0; i < view.npoints; i++) {
-            double deltaX = view.xpoints[i] - x;
-            double deltaY = view.ypoints[i] - y;
+    public VisionShape getView() {
+        return view;
+    }
 
-            view.xpoints[i] = (int)((deltaX*cos) - (deltaY*sin) + x + 0.5);
-            view.ypoints[i] = (int)((deltaX*sin) + (deltaY*cos) + y + 0.5);
-        }
+    // bounds of the view in the room
+    protected Rectangle2D getViewBounds() {
+        Rectangle2D.Float local = view.getBounds();
+        viewBounds.setRect(this.getX() + local.x, this.getY() + local.y, local.width, local.height);
+        return viewBounds;
+    }
 
+    // whether the mob can see any part of the rectangle. the rectangle is moved next to the mob instead of
+    // the view being moved to the mob's location
+    public boolean canSee(double x, double y, double width, double height) {
+        return view.intersects(x - this.getX(), y - this.getY(), width, height);
+    }
+
+    @Override
+    public void setFacingDirection(Direction facingDirection) {
         super.setFacingDirection(facingDirection);
+        if (prototype != null) { // the engine sets a facing before the constructor is done
+            this.view = prototype.getView(facingDirection);
+        }
+    }
+
+    // the engine would look through every loaded spritesheet for each new mob, the prototype did that once per type.
+    // runs from the Creature constructor, before prototype is set, so it falls back to the type being built.
+    @Override
+    protected IEntityAnimationController<?> createAnimationController() {
+        MobPrototype type = prototype != null ? prototype : constructing.get();
+        Spritesheet[] sheets = type == null ? null : type.getAnimations();
+        Spritesheet idle = type == null ? null : type.getDefaultAnimation();
+        if (sheets == null || idle == null) {
+            return new MeteredAnimationController<>(this, true);
+        }
+
+        Animation[] animations = new Animation[sheets.length];
+        for (int i = 0; i < sheets.length; i++) {
+            animations[i] = new Animation(sheets[i], true);
+        }
+        return new MeteredAnimationController<>(this, true, new Animation(idle, true), animations);
     }
 
     @Override
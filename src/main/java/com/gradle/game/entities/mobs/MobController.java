@@ -1,40 +1,32 @@
 package com.gradle.game.entities.mobs;
 
-import de.gurkenlabs.litiengine.Direction;
+import com.gradle.game.profiling.AllocationMeter;
 import de.gurkenlabs.litiengine.physics.MovementController;
 
-import java.util.Random;
-
+// Moves a mob. Which way to go is decided by MobSystem, which also runs the update, so this
+// controller isn't attached to the game loop itself.
 public class MobController extends MovementController<Mob> {
 
-    // movement variables
-    private static final int MOVEMENT_COOLDOWN = 20;
-    protected Random directionGenerator;
-    protected int sinceLastMove = 0;
-    protected Direction moving = Direction.DOWN;
-
     public MobController(Mob mobileEntity) {
         super(mobileEntity);
-        this.directionGenerator = new Random();
     }
 
-    @Override
-    public void update() {
-        sinceLastMove++;
-
+    // called by MobSystem once per tick. the move itself is the engine's physics, the allocation check doesn't count it
+    void move(float dx, float dy) {
+        setDx(dx);
+        setDy(dy);
+        AllocationMeter.enterEngine();
         super.update();
+        AllocationMeter.exitEngine();
+    }
 
-        if(sinceLastMove < MOVEMENT_COOLDOWN) {
-            setDx((float) Math.cos(moving.toAngle()));
-            setDy((float) Math.sin(moving.toAngle()));
-        }
-        else if(directionGenerator.nextInt(50) == 1) {
-            sinceLastMove = 0;
-
+    @Override
+    public void attach() {
+        MobSystem.register(this.getEntity(), this);
+    }
 
-            moving = Direction.fromAngle(directionGenerator.nextDouble(360.0F));
-            setDx((float) Math.cos(moving.toAngle()));
-            setDy((float) Math.sin(moving.toAngle()));
-        }
+    @Override
+    public void detach() {
+        MobSystem.unregister(this.getEntity());
     }
 }
@@ -0,0 +1,129 @@
+package com.gradle.game.entities.mobs;
+
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
+import jakarta.xml.bind.annotation.XmlTransient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One <mob> entry of mobs.xml. Resolved into a MobPrototype when the registry loads.
+public class MobDefinition {
+
+    @XmlAttribute(name = "name")
+    private String name;
+
+    @XmlAttribute(name = "spritesheet")
+    private String spritesheet;
+
+    @XmlAttribute(name = "width")
+    private double width = 32;
+
+    @XmlAttribute(name = "height")
+    private double height = 32;
+
+    @XmlAttribute(name = "collisionBoxWidth")
+    private float collisionBoxWidth = 16;
+
+    @XmlAttribute(name = "collisionBoxHeight")
+    private float collisionBoxHeight = 6;
+
+    @XmlAttribute(name = "velocity")
+    private float velocity = 100;
+
+    // name of the battle started when a player walks into the mob
+    @XmlAttribute(name = "battle")
+    private String battle;
+
+    // ticks a mob keeps walking once it picked a direction, and the 1 in n chance per tick to start walking
+    @XmlAttribute(name = "movementCooldown")
+    private int movementCooldown = 20;
+
+    @XmlAttribute(name = "moveChance")
+    private int moveChance = 50;
+
+    // vision shape for a mob facing down, relative to the mob's location
+    @XmlElementWrapper(name = "view")
+    @XmlElement(name = "point")
+    private List<ViewPoint> view = new ArrayList<>();
+
+    public MobDefinition() {
+    }
+
+    @XmlTransient
+    public String getName() {
+        return name;
+    }
+
+    @XmlTransient
+    public String getSpritesheet() {
+        return spritesheet;
+    }
+
+    @XmlTransient
+    public double getWidth() {
+        return width;
+    }
+
+    @XmlTransient
+    public double getHeight() {
+        return height;
+    }
+
+    @XmlTransient
+    public float getCollisionBoxWidth() {
+        return collisionBoxWidth;
+    }
+
+    @XmlTransient
+    public float getCollisionBoxHeight() {
+        return collisionBoxHeight;
+    }
+
+    @XmlTransient
+    public float getVelocity() {
+        return velocity;
+    }
+
+    @XmlTransient
+    public String getBattle() {
+        return battle;
+    }
+
+    @XmlTransient
+    public int getMovementCooldown() {
+        return movementCooldown;
+    }
+
+    @XmlTransient
+    public int getMoveChance() {
+        return moveChance;
+    }
+
+    @XmlTransient
+    public List<ViewPoint> getView() {
+        return view;
+    }
+
+    public static class ViewPoint {
+        @XmlAttribute(name = "x")
+        private int x;
+
+        @XmlAttribute(name = "y")
+        private int y;
+
+        public ViewPoint() {
+        }
+
+        @XmlTransient
+        public int getX() {
+            return x;
+        }
+
+        @XmlTransient
+        public int getY() {
+            return y;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.gradle.game.entities.mobs;
+
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlTransient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// root of mobs.xml
+@XmlRootElement(name = "mobs")
+public class MobDefinitions {
+
+    @XmlElement(name = "mob")
+    private List<MobDefinition> mobs = new ArrayList<>();
+
+    public MobDefinitions() {
+    }
+
+    @XmlTransient
+    public List<MobDefinition> getMobs() {
+        return mobs;
+    }
+}
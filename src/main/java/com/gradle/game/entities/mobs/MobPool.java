@@ -0,0 +1,46 @@
+package com.gradle.game.entities.mobs;
+
+import de.gurkenlabs.litiengine.environment.Environment;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the mobs of a room that is thrown away so the next spawn can reuse them instead of building new ones.
+// Rooms the players only walk out of keep their mobs, GameManager.spawn() spawns a room's mobs once. A room is
+// thrown away when the headless harness clears it between runs.
+// Mobs are pooled by type, the name of their entry in mobs.xml ("eye" for example).
+public final class MobPool {
+    private MobPool() {
+    }
+
+    private static final Map<String, ArrayDeque<Mob>> pools = new HashMap<>();
+
+    // returns a reset mob of the given type, or null if there is none to reuse
+    public static Mob obtain(String type) {
+        ArrayDeque<Mob> pool = pools.get(type);
+        return pool == null ? null : pool.poll();
+    }
+
+    // takes every mob out of the environment and keeps it for later
+    public static void release(Environment environment) {
+        List<Mob> mobs = new ArrayList<>(environment.getEntities(Mob.class));
+        environment.removeAll(mobs);
+
+        for (Mob mob : mobs) {
+            mob.reset();
+            pools.computeIfAbsent(mob.getMobType(), type -> new ArrayDeque<>()).push(mob);
+        }
+    }
+
+    public static int size(String type) {
+        ArrayDeque<Mob> pool = pools.get(type);
+        return pool == null ? 0 : pool.size();
+    }
+
+    public static void clear() {
+        pools.clear();
+    }
+}
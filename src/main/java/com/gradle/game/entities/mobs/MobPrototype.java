@@ -0,0 +1,85 @@
+package com.gradle.game.entities.mobs;
+
+import de.gurkenlabs.litiengine.Direction;
+import de.gurkenlabs.litiengine.graphics.Spritesheet;
+import de.gurkenlabs.litiengine.resources.Resources;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A mob definition with everything looked up ahead of time, so spawning one is just a copy.
+public class MobPrototype {
+
+    // the facings a mob has a vision shape for, the view in mobs.xml is the one for DOWN
+    static final Direction[] FACINGS = {Direction.DOWN, Direction.RIGHT, Direction.UP, Direction.LEFT};
+
+    private final MobDefinition definition;
+    private final Spritesheet[] animations;
+    private final Spritesheet defaultAnimation;
+    private final VisionShape[] views = new VisionShape[FACINGS.length];
+
+    MobPrototype(MobDefinition definition) {
+        this.definition = definition;
+
+        // every "<spritesheet>-<state>-<direction>" sheet belongs to this mob
+        String prefix = definition.getSpritesheet() + "-";
+        List<Spritesheet> sheets = new ArrayList<>();
+        Spritesheet idle = null;
+        for (Spritesheet sheet : Resources.spritesheets().getAll()) {
+            if (sheet.getName().startsWith(prefix)) {
+                sheets.add(sheet);
+                if (sheet.getName().equals(prefix + "idle-down")) {
+                    idle = sheet;
+                }
+            }
+        }
+        this.animations = sheets.toArray(new Spritesheet[0]);
+        this.defaultAnimation = idle != null || animations.length == 0 ? idle : animations[0];
+
+        List<MobDefinition.ViewPoint> points = definition.getView();
+        float[] viewX = new float[points.size()];
+        float[] viewY = new float[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            viewX[i] = points.get(i).getX();
+            viewY[i] = points.get(i).getY();
+        }
+        VisionShape down = new VisionShape(viewX, viewY);
+        for (int f = 0; f < FACINGS.length; f++) {
+            views[f] = down.rotate(f);
+        }
+    }
+
+    // index into FACINGS, anything that isn't a facing counts as down
+    static int facingIndex(Direction direction) {
+        return switch (direction) {
+            case RIGHT -> 1;
+            case UP -> 2;
+            case LEFT -> 3;
+            default -> 0;
+        };
+    }
+
+    public Mob create() {
+        return new BattleMob(this);
+    }
+
+    public String getName() {
+        return definition.getName();
+    }
+
+    public MobDefinition getDefinition() {
+        return definition;
+    }
+
+    public Spritesheet[] getAnimations() {
+        return animations;
+    }
+
+    public Spritesheet getDefaultAnimation() {
+        return defaultAnimation;
+    }
+
+    public VisionShape getView(Direction facing) {
+        return views[facingIndex(facing)];
+    }
+}
@@ -0,0 +1,56 @@
+package com.gradle.game.entities.mobs;
+
+import de.gurkenlabs.litiengine.resources.Resources;
+import de.gurkenlabs.litiengine.util.io.XmlUtilities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Mob types, loaded from mobs.xml. A new kind of mob only needs an entry there and its sprites.
+public final class MobRegistry {
+    private MobRegistry() {
+    }
+
+    private static final String DEFINITIONS_FILE = "mobs.xml";
+
+    private static final Map<String, MobPrototype> prototypes = new HashMap<>();
+
+    // must run after the game resources are loaded, the prototypes look up their sprites
+    public static void init() {
+        load(DEFINITIONS_FILE);
+    }
+
+    public static void load(String path) {
+        MobDefinitions definitions;
+        try {
+            definitions = XmlUtilities.read(MobDefinitions.class, Resources.getLocation(path));
+        } catch (jakarta.xml.bind.JAXBException e) {
+            System.err.println("ERROR: failed to load mob definitions from " + path + ". XML message: " + e.getMessage());
+            return;
+        }
+
+        for (MobDefinition definition : definitions.getMobs()) {
+            MobPrototype prototype = new MobPrototype(definition);
+            prototypes.put(definition.getName(), prototype);
+        }
+    }
+
+    public static MobPrototype get(String name) {
+        return prototypes.get(name);
+    }
+
+    // reuses a pooled mob if there is one
+    public static Mob create(String name) {
+        Mob mob = MobPool.obtain(name);
+        if (mob != null) {
+            return mob;
+        }
+
+        MobPrototype prototype = prototypes.get(name);
+        if (prototype == null) {
+            System.out.println("WARNING: name of mob to create was invalid: " + name);
+            return null;
+        }
+        return prototype.create();
+    }
+}
@@ -0,0 +1,484 @@
+package com.gradle.game.entities.mobs;
+
+import com.gradle.game.GameManager;
+import com.gradle.game.entities.FlowField;
+import com.gradle.game.entities.SpatialIndex;
+import com.gradle.game.entities.player.Player;
+import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.profiling.AllocationMeter;
+import de.gurkenlabs.litiengine.Direction;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.graphics.ICamera;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs the AI of every mob in the room in one update, instead of every mob and every MobController
+// being attached to the game loop on their own.
+// Mob state that is touched every tick lives here in plain arrays, one slot per mob, so the loop walks
+// memory in order. A mob gets a slot when its controllers are attached (it's added to the room) and
+// loses it when they are detached. Slots are kept packed, the last mob moves into a freed slot.
+//
+// A tick has two phases:
+//  - think: every mob decides where to go and whether it can see a player. Mobs only read the player
+//    snapshot taken at the start of the tick and only write their own slot, so in big rooms this phase
+//    is split over a ForkJoinPool. Each mob has its own random stream, so the result is the same no
+//    matter how the work was split or in which order it ran.
+//  - apply: back on the game loop thread, the decisions are handed to the engine (movement, alert flag).
+//
+// Mobs nobody can see don't need to think every tick. Every few ticks each mob gets a level by its distance
+// to the camera viewport: awake on and around the screen, reduced (thinks every REDUCED_RATE ticks and keeps
+// walking in between) a screen further out, asleep (doesn't think or move) beyond that. Every tick the mobs
+// near a player are woken up through the mob grid, so a player walking off-screen never meets a frozen mob.
+//
+// Alerted mobs head for the closest player along SpatialIndex.PLAYER_FLOW, which is shared by all of them
+// and only rebuilt when a player steps onto another tile.
+public final class MobSystem implements IUpdateable {
+
+    private static final MobSystem instance = new MobSystem();
+
+    // movement variables. how long a mob walks and how often it starts again come from its mobs.xml entry
+    private static final Direction[] DIRECTIONS = {Direction.DOWN, Direction.RIGHT, Direction.UP, Direction.LEFT};
+
+    // unit vector of each of the DIRECTIONS, y points down
+    private static final float[] DIRECTION_X = {0, 1, 0, -1};
+    private static final float[] DIRECTION_Y = {1, 0, -1, 0};
+
+    // below this many mobs the think phase runs on the loop thread, splitting it would cost more than it saves
+    private static final int PARALLEL_THRESHOLD = 1024;
+    private static final int CHUNK_SIZE = 256;
+
+    // tick level of detail
+    private static final byte LOD_AWAKE = 0;
+    private static final byte LOD_REDUCED = 1;
+    private static final byte LOD_ASLEEP = 2;
+    private static final int LOD_INTERVAL = 15; // ticks between working out the levels from the viewport
+    private static final int REDUCED_RATE = 4; // must be a power of two
+    private static final double AWAKE_MARGIN = 64; // pixels around the viewport that count as on screen
+    private static final double WAKE_RADIUS = 320; // pixels around a player within which mobs are always awake
+
+    private static boolean lodEnabled = !"false".equals(System.getProperty("game.mobLod"));
+    private static boolean simulated = true; // off on network clients, the server moves their mobs
+    private static int tick = 0;
+    private static int awakeCount = 0;
+    private static final Rectangle2D.Double wakeArea = new Rectangle2D.Double();
+    private static final ArrayList<Mob> nearPlayer = new ArrayList<>();
+
+    private static int count = 0;
+    private static Mob[] mobs = new Mob[64];
+    private static MobController[] controllers = new MobController[64];
+    private static float[] x = new float[64];
+    private static float[] y = new float[64];
+    private static float[] dx = new float[64];
+    private static float[] dy = new float[64];
+    private static byte[] direction = new byte[64];
+    private static int[] sinceLastMove = new int[64];
+    private static boolean[] alerted = new boolean[64];
+    private static long[] random = new long[64];
+    private static int[] movementCooldown = new int[64];
+    private static int[] moveChance = new int[64]; // 1 in this many ticks a resting mob starts moving again
+    private static float[] centerX = new float[64]; // collision box center, relative to the mob's location
+    private static float[] centerY = new float[64];
+    private static byte[] lod = new byte[64];
+
+    // written by the think phase, read by the apply phase
+    private static float[] moveX = new float[64];
+    private static float[] moveY = new float[64];
+    private static boolean[] seesPlayer = new boolean[64];
+
+    // mobs that had no map id yet when they were registered, numbered in order so their streams still differ
+    private static long unnumberedMobs = 0;
+
+    // collision boxes of the players, taken at the start of every tick. x, y, width, height for each player
+    private static double[] playerBoxes = new double[16];
+    private static int[] playerTiles = new int[4];
+    private static int playerCount = 0;
+
+    private static final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private static final ThinkPhase thinkPhase = new ThinkPhase();
+
+    private MobSystem() {
+    }
+
+    // GameTick updates it after the input and the network
+    public static MobSystem instance() {
+        return instance;
+    }
+
+    public static int size() {
+        return count;
+    }
+
+    // the mob in the slot, for 0 <= slot < size(). slots change as mobs come and go, don't keep them
+    public static Mob get(int slot) {
+        return mobs[slot];
+    }
+
+    // number of mobs that weren't asleep last tick
+    public static int getAwakeCount() {
+        return awakeCount;
+    }
+
+    // with level of detail off every mob thinks every tick. can also be turned off with -Dgame.mobLod=false
+    public static void setLodEnabled(boolean enabled) {
+        lodEnabled = enabled;
+        if (!enabled) {
+            Arrays.fill(lod, 0, count, LOD_AWAKE);
+        }
+    }
+
+    public static boolean isLodEnabled() {
+        return lodEnabled;
+    }
+
+    // a game that isn't simulating keeps its mobs registered but leaves moving them to someone else (NetClient)
+    public static void setSimulated(boolean value) {
+        simulated = value;
+    }
+
+    public static boolean isSimulated() {
+        return simulated;
+    }
+
+    @Override
+    public void update() {
+        if (!simulated) {
+            return;
+        }
+        tick++;
+        snapshotPlayers();
+        if (lodEnabled) {
+            if (tick % LOD_INTERVAL == 0) {
+                updateLevels();
+            }
+            wakeNearPlayers();
+        }
+
+        if (count >= PARALLEL_THRESHOLD) {
+            thinkPhase.prepare(count);
+            pool.invoke(thinkPhase);
+        } else {
+            think(0, count);
+        }
+
+        // apply
+        int awake = 0;
+        for (int i = 0; i < count; i++) {
+            if (lod[i] == LOD_ASLEEP) {
+                continue;
+            }
+            awake++;
+            if (seesPlayer[i]) {
+                alerted[i] = true;
+            }
+            controllers[i].move(moveX[i], moveY[i]);
+        }
+        awakeCount = awake;
+    }
+
+    // levels by distance to the viewport. cheap next to thinking, but still only done every LOD_INTERVAL ticks
+    private static void updateLevels() {
+        // not Game.world().camera(), split screen swaps that for its viewports while rendering
+        ICamera camera = GameManager.getCamera();
+        if (camera == null) {
+            return;
+        }
+        // the engine hands out a copy
+        AllocationMeter.enterEngine();
+        Rectangle2D viewport = camera.getViewport();
+        AllocationMeter.exitEngine();
+        double awakeMinX = viewport.getMinX() - AWAKE_MARGIN;
+        double awakeMinY = viewport.getMinY() - AWAKE_MARGIN;
+        double awakeMaxX = viewport.getMaxX() + AWAKE_MARGIN;
+        double awakeMaxY = viewport.getMaxY() + AWAKE_MARGIN;
+        double reducedMinX = awakeMinX - viewport.getWidth();
+        double reducedMinY = awakeMinY - viewport.getHeight();
+        double reducedMaxX = awakeMaxX + viewport.getWidth();
+        double reducedMaxY = awakeMaxY + viewport.getHeight();
+
+        for (int i = 0; i < count; i++) {
+            float mx = x[i];
+            float my = y[i];
+            if (mx >= awakeMinX && mx <= awakeMaxX && my >= awakeMinY && my <= awakeMaxY) {
+                lod[i] = LOD_AWAKE;
+            } else if (mx >= reducedMinX && mx <= reducedMaxX && my >= reducedMinY && my <= reducedMaxY) {
+                lod[i] = LOD_REDUCED;
+            } else {
+                lod[i] = LOD_ASLEEP;
+            }
+        }
+    }
+
+    // anything close to a player is awake, whatever the viewport says
+    private static void wakeNearPlayers() {
+        for (int p = 0; p < playerCount; p++) {
+            wakeArea.setRect(playerBoxes[p * 4] - WAKE_RADIUS, playerBoxes[p * 4 + 1] - WAKE_RADIUS,
+                    playerBoxes[p * 4 + 2] + WAKE_RADIUS * 2, playerBoxes[p * 4 + 3] + WAKE_RADIUS * 2);
+            SpatialIndex.MOBS.query(wakeArea, nearPlayer);
+        }
+        for (int m = 0; m < nearPlayer.size(); m++) {
+            int slot = nearPlayer.get(m).getSystemIndex();
+            if (slot != Mob.NO_SLOT) {
+                lod[slot] = LOD_AWAKE;
+            }
+        }
+        nearPlayer.clear();
+    }
+
+    private static void snapshotPlayers() {
+        Player[] players = PlayerManager.getSnapshot();
+        playerCount = players.length;
+        if (playerBoxes.length < playerCount * 4) {
+            playerBoxes = new double[playerCount * 4];
+            playerTiles = new int[playerCount];
+        }
+        for (int p = 0; p < playerCount; p++) {
+            Rectangle2D box = players[p].getCollisionBox();
+            playerBoxes[p * 4] = box.getX();
+            playerBoxes[p * 4 + 1] = box.getY();
+            playerBoxes[p * 4 + 2] = box.getWidth();
+            playerBoxes[p * 4 + 3] = box.getHeight();
+            playerTiles[p] = SpatialIndex.PLAYER_FLOW.tileOf(box.getCenterX(), box.getCenterY());
+        }
+
+        // before the think phase, which reads the field from several threads
+        SpatialIndex.PLAYER_FLOW.setSources(playerTiles, playerCount);
+    }
+
+    // may run on any thread. only reads the player snapshot and only writes slots from..to-1
+    private static void think(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Mob mob = mobs[i];
+
+            // sleeping mobs stand still, reduced ones think now and then and keep their last move in between
+            int elapsed = 1;
+            if (lod[i] == LOD_ASLEEP) {
+                seesPlayer[i] = false;
+                continue;
+            } else if (lod[i] == LOD_REDUCED) {
+                if (((tick + i) & (REDUCED_RATE - 1)) != 0) {
+                    seesPlayer[i] = false;
+                    continue;
+                }
+                elapsed = REDUCED_RATE;
+            }
+
+            // vision, the player boxes are moved next to the mob so its shared view shape can be tested as is.
+            // the shape checks its own bounds first, which rules out most players
+            seesPlayer[i] = false;
+            VisionShape view = mob.getView();
+            float mobX = x[i];
+            float mobY = y[i];
+            for (int p = 0; p < playerCount; p++) {
+                double px = playerBoxes[p * 4] - mobX;
+                double py = playerBoxes[p * 4 + 1] - mobY;
+                double pw = playerBoxes[p * 4 + 2];
+                double ph = playerBoxes[p * 4 + 3];
+                if (view.intersects(px, py, pw, ph)) {
+                    seesPlayer[i] = true;
+                    break;
+                }
+            }
+
+            // chase: alerted mobs follow the flow field. next to the player, or with no way there, they wander
+            if (alerted[i]) {
+                int chase = SpatialIndex.PLAYER_FLOW.getStep(x[i] + centerX[i], y[i] + centerY[i]);
+                if (chase != FlowField.NO_STEP) {
+                    moveX[i] = DIRECTION_X[chase];
+                    moveY[i] = DIRECTION_Y[chase];
+                    continue;
+                }
+            }
+
+            // wander: keep going for a while, then rest until a new direction is picked
+            sinceLastMove[i] += elapsed;
+            if (sinceLastMove[i] < movementCooldown[i]) {
+                moveX[i] = dx[i];
+                moveY[i] = dy[i];
+            } else if (nextInt(i, elapsed == 1 ? moveChance[i] : Math.max(2, moveChance[i] / elapsed)) == 1) {
+                sinceLastMove[i] = 0;
+                setDirection(i, nextInt(i, DIRECTIONS.length));
+                moveX[i] = dx[i];
+                moveY[i] = dy[i];
+            } else {
+                moveX[i] = 0;
+                moveY[i] = 0;
+            }
+        }
+    }
+
+    // splitmix64 step on the slot's own random stream
+    private static int nextInt(int slot, int bound) {
+        long z = mix(random[slot] += 0x9E3779B97F4A7C15L);
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    // the random stream of a mob only depends on the world seed and the mob's id, so the same room with the same
+    // seed wanders the same way every run, whatever order the mobs were registered in
+    static long streamSeed(long worldSeed, long mobId) {
+        return mix(worldSeed ^ mix(mobId + 0x9E3779B97F4A7C15L));
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ========================================================================================================================
+    // Slot management, called by MobController
+
+    static void register(Mob mob, MobController controller) {
+        if (mob.getSystemIndex() != Mob.NO_SLOT) {
+            return;
+        }
+        if (count == mobs.length) {
+            grow(count * 2);
+        }
+
+        int slot = count++;
+        mobs[slot] = mob;
+        controllers[slot] = controller;
+        x[slot] = (float) mob.getX();
+        y[slot] = (float) mob.getY();
+        Rectangle2D box = mob.getCollisionBox();
+        centerX[slot] = (float) (box.getCenterX() - mob.getX());
+        centerY[slot] = (float) (box.getCenterY() - mob.getY());
+        sinceLastMove[slot] = 0;
+        alerted[slot] = false;
+        random[slot] = streamSeed(GameManager.getWorldSeed(), mob.getMapId() != 0 ? mob.getMapId() : -(++unnumberedMobs));
+        movementCooldown[slot] = mob.getPrototype().getDefinition().getMovementCooldown();
+        moveChance[slot] = Math.max(1, mob.getPrototype().getDefinition().getMoveChance());
+        lod[slot] = LOD_AWAKE;
+        setDirection(slot, 0);
+        mob.setSystemIndex(slot);
+    }
+
+    static void unregister(Mob mob) {
+        int slot = mob.getSystemIndex();
+        if (slot == Mob.NO_SLOT) {
+            return;
+        }
+
+        int last = --count;
+        if (slot != last) {
+            mobs[slot] = mobs[last];
+            controllers[slot] = controllers[last];
+            x[slot] = x[last];
+            y[slot] = y[last];
+            dx[slot] = dx[last];
+            dy[slot] = dy[last];
+            direction[slot] = direction[last];
+            sinceLastMove[slot] = sinceLastMove[last];
+            alerted[slot] = alerted[last];
+            random[slot] = random[last];
+            movementCooldown[slot] = movementCooldown[last];
+            moveChance[slot] = moveChance[last];
+            lod[slot] = lod[last];
+            centerX[slot] = centerX[last];
+            centerY[slot] = centerY[last];
+            moveX[slot] = moveX[last];
+            moveY[slot] = moveY[last];
+            mobs[slot].setSystemIndex(slot);
+        }
+        mobs[last] = null;
+        controllers[last] = null;
+        mob.setSystemIndex(Mob.NO_SLOT);
+    }
+
+    // ========================================================================================================================
+    // Per mob state, called by Mob
+
+    static void moved(int slot, double newX, double newY) {
+        x[slot] = (float) newX;
+        y[slot] = (float) newY;
+    }
+
+    static boolean isAlerted(int slot) {
+        return alerted[slot];
+    }
+
+    static void setAlerted(int slot, boolean value) {
+        alerted[slot] = value;
+    }
+
+    // table lookup, the old cos/sin of Direction.toAngle() was given degrees and didn't point where the mob faced
+    private static void setDirection(int slot, int index) {
+        direction[slot] = (byte) index;
+        dx[slot] = DIRECTION_X[index];
+        dy[slot] = DIRECTION_Y[index];
+    }
+
+    private static void grow(int capacity) {
+        mobs = Arrays.copyOf(mobs, capacity);
+        controllers = Arrays.copyOf(controllers, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        sinceLastMove = Arrays.copyOf(sinceLastMove, capacity);
+        alerted = Arrays.copyOf(alerted, capacity);
+        random = Arrays.copyOf(random, capacity);
+        movementCooldown = Arrays.copyOf(movementCooldown, capacity);
+        moveChance = Arrays.copyOf(moveChance, capacity);
+        lod = Arrays.copyOf(lod, capacity);
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        moveX = Arrays.copyOf(moveX, capacity);
+        moveY = Arrays.copyOf(moveY, capacity);
+        seesPlayer = Arrays.copyOf(seesPlayer, capacity);
+    }
+
+    // ========================================================================================================================
+    // Parallel think phase. The tasks are made once and reused every tick.
+
+    private static final class ThinkChunk extends RecursiveAction {
+        private int from;
+        private int to;
+
+        @Override
+        protected void compute() {
+            long allocated = AllocationMeter.mark();
+            think(from, to);
+            AllocationMeter.workerSince(allocated);
+        }
+    }
+
+    private static final class ThinkPhase extends RecursiveAction {
+        private ThinkChunk[] chunks = new ThinkChunk[0];
+        private int used = 0;
+
+        void prepare(int mobCount) {
+            used = (mobCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            if (chunks.length < used) {
+                ThinkChunk[] grown = Arrays.copyOf(chunks, used);
+                for (int c = chunks.length; c < used; c++) {
+                    grown[c] = new ThinkChunk();
+                }
+                chunks = grown;
+            }
+            for (int c = 0; c < used; c++) {
+                chunks[c].reinitialize();
+                chunks[c].from = c * CHUNK_SIZE;
+                chunks[c].to = Math.min(mobCount, (c + 1) * CHUNK_SIZE);
+            }
+            this.reinitialize();
+        }
+
+        @Override
+        protected void compute() {
+            for (int c = 1; c < used; c++) {
+                chunks[c].fork();
+            }
+            chunks[0].compute();
+            for (int c = 1; c < used; c++) {
+                chunks[c].join();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.gradle.game.entities.mobs;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+
+// A mob's line of sight for one facing, relative to the mob's location. Built once per mob type and facing
+// by MobPrototype and shared by every mob of that type, so it is never changed after it is made.
+// The intersection test works on the float points directly, java.awt.Polygon would round them to ints and
+// make path iterators on every call.
+public final class VisionShape {
+
+    private final float[] xs;
+    private final float[] ys;
+    private final Rectangle2D.Float bounds;
+
+    VisionShape(float[] xs, float[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        this.bounds = xs.length == 0 ? new Rectangle2D.Float() : new Rectangle2D.Float(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    // the shape, made for a mob facing down, turned to face MobPrototype.FACINGS[facing] (down, right, up, left).
+    // exact, a quarter turn only swaps and negates coordinates
+    VisionShape rotate(int facing) {
+        float[] rx = new float[xs.length];
+        float[] ry = new float[ys.length];
+        for (int i = 0; i < xs.length; i++) {
+            float x = xs[i];
+            float y = ys[i];
+            switch (facing) {
+                case 0 -> { rx[i] = x; ry[i] = y; }
+                case 1 -> { rx[i] = y; ry[i] = -x; }
+                case 2 -> { rx[i] = -x; ry[i] = -y; }
+                default -> { rx[i] = -y; ry[i] = x; }
+            }
+        }
+        return new VisionShape(rx, ry);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public float getX(int i) {
+        return xs[i];
+    }
+
+    public float getY(int i) {
+        return ys[i];
+    }
+
+    // bounds relative to the mob's location. don't change the returned rectangle
+    public Rectangle2D.Float getBounds() {
+        return bounds;
+    }
+
+    // whether the rectangle, given relative to the mob's location, touches the shape.
+    // safe to call from several threads, nothing is written
+    public boolean intersects(double x, double y, double w, double h) {
+        if (xs.length == 0 || !bounds.intersects(x, y, w, h)) {
+            return false;
+        }
+
+        double maxX = x + w;
+        double maxY = y + h;
+
+        // a point of the shape inside the rectangle
+        for (int i = 0; i < xs.length; i++) {
+            if (xs[i] >= x && xs[i] <= maxX && ys[i] >= y && ys[i] <= maxY) {
+                return true;
+            }
+        }
+
+        // the rectangle inside the shape, one corner is enough once no edges cross
+        if (contains(x, y)) {
+            return true;
+        }
+
+        // an edge of the shape crossing an edge of the rectangle
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            double x1 = xs[j], y1 = ys[j], x2 = xs[i], y2 = ys[i];
+            if (Line2D.linesIntersect(x1, y1, x2, y2, x, y, maxX, y)
+                    || Line2D.linesIntersect(x1, y1, x2, y2, maxX, y, maxX, maxY)
+                    || Line2D.linesIntersect(x1, y1, x2, y2, maxX, maxY, x, maxY)
+                    || Line2D.linesIntersect(x1, y1, x2, y2, x, maxY, x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // even-odd rule, same as java.awt.Polygon
+    public boolean contains(double px, double py) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > py) != (ys[j] > py)
+                    && px < (xs[j] - xs[i]) * (py - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,35 @@
+package com.gradle.game.entities.player;
+
+import de.gurkenlabs.litiengine.entities.IEntityController;
+import de.gurkenlabs.litiengine.entities.behavior.IBehaviorController;
+import de.gurkenlabs.litiengine.graphics.animation.IEntityAnimationController;
+import de.gurkenlabs.litiengine.physics.IMovementController;
+
+// The slot a controller takes in PlayerControllerManager. A player has at most one main controller of each kind.
+public enum ControllerKind {
+    MOVEMENT,
+    ANIMATION,
+    AI,
+    OTHER;
+
+    static final ControllerKind[] ALL = values(); // values() copies the array on every call
+
+    // worked out once per class, after that it's a field read
+    private static final ClassValue<ControllerKind> BY_CLASS = new ClassValue<>() {
+        @Override
+        protected ControllerKind computeValue(Class<?> type) {
+            if (IMovementController.class.isAssignableFrom(type)) {
+                return MOVEMENT;
+            } else if (IEntityAnimationController.class.isAssignableFrom(type)) {
+                return ANIMATION;
+            } else if (IBehaviorController.class.isAssignableFrom(type)) {
+                return AI;
+            }
+            return OTHER;
+        }
+    };
+
+    public static ControllerKind of(Class<? extends IEntityController> type) {
+        return BY_CLASS.get(type);
+    }
+}
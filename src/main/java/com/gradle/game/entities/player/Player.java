@@ -1,5 +1,8 @@
 package com.gradle.game.entities.player;
 import com.gradle.game.SaveGame;
+import com.gradle.game.entities.CollisionLayers;
+import com.gradle.game.entities.ILayeredEntity;
+import com.gradle.game.entities.MeteredAnimationController;
 import com.gradle.game.gui.screens.PauseScreen;
 import com.gradle.game.gui.windows.CreaturesWindow;
 import com.gradle.game.gui.windows.Window;
@@ -18,13 +21,14 @@ import java.util.ArrayDeque;
 @EntityInfo(width = 32, height = 32)
 @MovementInfo(velocity = 100)
 @CollisionInfo(collisionBoxWidth = 12, collisionBoxHeight = 6, collision = true, valign = Valign.DOWN)
-public class Player extends Creature {
+public class Player extends Creature implements ILayeredEntity {
     private final int id;
     private final String characterName;
     private final SaveGame save;
+    private final boolean persistent; // whether the player has a save file
     private boolean keyboard = true;
 
-    private final ArrayDeque<Window> activeWindows; // NOTE: if this produce concurrency errors, replace with a ConcurrentLinkedDeque.
+    private final ArrayDeque<Window> activeWindows; // loop thread only. input reaches it through the InputQueue
     private PlayerControllerManager controllers;
 
 //    private IKeyboard.KeyTypedListener keyboardWindowListener;
@@ -44,11 +48,16 @@ public class Player extends Creature {
         this(spritesheetName, 0, "bob");
     }
     protected Player(String spritesheetName, int id, String name) {
+        this(spritesheetName, id, name, true);
+    }
+    // players that aren't persistent start from an empty save and never write it
+    protected Player(String spritesheetName, int id, String name, boolean persistent) {
         super(spritesheetName);
         this.id = id;
         this.characterName = name;
+        this.persistent = persistent;
         this.activeWindows = new ArrayDeque<>();
-        this.save = SaveGame.loadSavedGameFile(characterName);
+        this.save = persistent ? SaveGame.loadSavedGameFile(characterName) : new SaveGame(characterName, null);
         Game.screens().add(new PauseScreen(id));
 
         CreaturesWindow creaturesWindow = new CreaturesWindow("P" + id + "-CREATURES", id);
@@ -155,9 +164,27 @@ public class Player extends Creature {
     }
 
     public void saveGame() {
+        if (!persistent) {
+            return;
+        }
         this.save.saveGame(this.characterName);
     }
 
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayers.PLAYER;
+    }
+
+    // players don't listen for collisions, the mobs and doors they walk into do
+    @Override
+    public int getCollisionMask() {
+        return CollisionLayers.NONE;
+    }
+
     public boolean isKeyboardControlled() {
         return keyboard;
     }
@@ -196,6 +223,11 @@ public class Player extends Creature {
         return this.controllers().getAnimationController();
     }
 
+    @Override
+    public IMovementController movement() {
+        return this.controllers().getMovementController();
+    }
+
     @Override
     public void addController(IEntityController controller) {
         this.controllers().addController(controller);
@@ -209,6 +241,12 @@ public class Player extends Creature {
     //    return this.controllers;
     //}
 
+    // the engine's animations, only marked for the allocation check
+    @Override
+    protected IEntityAnimationController<?> createAnimationController() {
+        return new MeteredAnimationController<>(this, true);
+    }
+
     @Override
     protected void updateAnimationController() {
         IEntityAnimationController<?> controller = this.createAnimationController();
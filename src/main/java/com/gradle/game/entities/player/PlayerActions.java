@@ -0,0 +1,74 @@
+package com.gradle.game.entities.player;
+
+import com.gradle.game.input.InputRecorder;
+
+import java.awt.event.KeyEvent;
+
+// Everything a player can do besides walking, as small codes, so keyboard, gamepad and a replay all end up in
+// the same dispatch() and a recording only has to store a byte per action.
+// dispatch() runs on the loop thread, input listeners post it through the InputQueue.
+public final class PlayerActions {
+    private PlayerActions() {
+    }
+
+    public static final byte NONE = -1;
+    public static final byte PAUSE_MENU = 0;
+    public static final byte CREATURES_MENU = 1;
+    public static final byte WINDOW_UP = 2;
+    public static final byte WINDOW_RIGHT = 3;
+    public static final byte WINDOW_DOWN = 4;
+    public static final byte WINDOW_LEFT = 5;
+    public static final byte ENTER = 6;
+    public static final int COUNT = 7;
+
+    public static void dispatch(Player player, byte action) {
+        InputRecorder.action(player.getId(), action);
+        switch (action) {
+            case PAUSE_MENU -> player.loadPauseMenu();
+            case CREATURES_MENU -> player.loadCreaturesMenu();
+            case WINDOW_UP -> player.windowUp();
+            case WINDOW_RIGHT -> player.windowRight();
+            case WINDOW_DOWN -> player.windowDown();
+            case WINDOW_LEFT -> player.windowLeft();
+            case ENTER -> player.enterButton();
+            default -> System.out.println("WARNING: unknown player action " + action);
+        }
+    }
+
+    // released keys. escape is handled on key typed, see PlayerKeyboardController
+    public static byte fromKey(int keyCode) {
+        return switch (keyCode) {
+            case KeyEvent.VK_1 -> CREATURES_MENU;
+
+            // window navigation
+            // TODO: raise issue over vk_kp_* codes not working.
+            case KeyEvent.VK_NUMPAD8 -> WINDOW_UP; // numpad up
+            case KeyEvent.VK_NUMPAD6 -> WINDOW_RIGHT; // numpad right
+            case KeyEvent.VK_NUMPAD2 -> WINDOW_DOWN; // numpad Down
+            case KeyEvent.VK_NUMPAD4 -> WINDOW_LEFT; // numpad left
+
+            case KeyEvent.VK_ENTER, KeyEvent.VK_SPACE -> ENTER;
+            default -> NONE;
+        };
+    }
+
+    // released gamepad buttons
+    public static byte fromButton(String componentId, float value) {
+        return switch (componentId) {
+            case "pov" -> value < 0.375f ? CREATURES_MENU : NONE; // dpad up. right, down and left are free
+            case "0" -> ENTER;
+            case "7" -> PAUSE_MENU; // pause button
+            default -> NONE;
+        };
+    }
+
+    // one Runnable per action for the player, made once so posting an action doesn't allocate
+    static Runnable[] runnables(Player player) {
+        Runnable[] runnables = new Runnable[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            final byte action = (byte) i;
+            runnables[i] = () -> dispatch(player, action);
+        }
+        return runnables;
+    }
+}
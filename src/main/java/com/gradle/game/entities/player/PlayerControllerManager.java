@@ -1,95 +1,136 @@
 package com.gradle.game.entities.player;
 
-import com.gradle.game.entities.player.Player;
 import de.gurkenlabs.litiengine.entities.IEntityController;
+import de.gurkenlabs.litiengine.entities.behavior.IBehaviorController;
 import de.gurkenlabs.litiengine.graphics.animation.IEntityAnimationController;
+import de.gurkenlabs.litiengine.physics.IMovementController;
 
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
 
+// Controllers of a player, one slot per ControllerKind, so finding the movement or animation controller is an
+// array read. A controller added while its slot is taken by a different class (a gamepad next to the keyboard
+// in single player) goes in the extras and runs alongside; only lookups by its exact class find it there.
 @SuppressWarnings("unchecked")
 public class PlayerControllerManager {
-    private Map<Class<? extends IEntityController>, IEntityController> controllers;
-    private IEntityAnimationController<Player> animationController;
+    private final IEntityController[] slots = new IEntityController[ControllerKind.ALL.length];
+    private IEntityController[] extras = new IEntityController[0];
 
     public PlayerControllerManager() {
-        this.controllers = new ConcurrentHashMap<>();
+    }
+
+    public IEntityController get(ControllerKind kind) {
+        return slots[kind.ordinal()];
+    }
+
+    public IMovementController getMovementController() {
+        return (IMovementController) slots[ControllerKind.MOVEMENT.ordinal()];
     }
 
     public IEntityAnimationController<Player> getAnimationController() {
-        if (this.animationController == null) {
-            this.animationController = this.getController(IEntityAnimationController.class);
-        }
+        return (IEntityAnimationController<Player>) slots[ControllerKind.ANIMATION.ordinal()];
+    }
 
-        return this.animationController;
+    public IBehaviorController getAIController() {
+        return (IBehaviorController) slots[ControllerKind.AI.ordinal()];
     }
 
-    @SuppressWarnings("unchecked")
     public <T extends IEntityController> T getController(Class<T> clss) {
-        T explicitController = this.getExplicitController(clss);
-        if (explicitController != null) {
-            return explicitController;
+        IEntityController controller = slots[ControllerKind.of(clss).ordinal()];
+        if (clss.isInstance(controller)) {
+            return (T) controller;
         }
 
-        // else check for controllers that are an instance of the specified class and return the first
-        for (IEntityController controller : this.controllers.values()) {
-            if (clss.isInstance(controller)) {
-                return (T) controller;
+        // a class that doesn't tell the kind (IEntityController itself, say) may be in any slot
+        for (IEntityController slotted : slots) {
+            if (clss.isInstance(slotted)) {
+                return (T) slotted;
             }
         }
 
+        // almost always empty
+        for (IEntityController extra : extras) {
+            if (clss.isInstance(extra)) {
+                return (T) extra;
+            }
+        }
         return null;
     }
 
+    // detaches and removes the controllers that are instances of the class, whatever slot they are in
     public <T extends IEntityController> void clearControllers(Class<T> clss) {
-        Optional<Class<? extends IEntityController>> typeKey = this.controllers.keySet().stream().filter(x -> clss.isAssignableFrom(x)).findFirst();
-        if (typeKey.isPresent()) {
-            IEntityController controller = this.controllers.get(typeKey.get());
-            controller.detach();
-            this.controllers.remove(typeKey.get());
-            this.animationController = null;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (clss.isInstance(slots[slot])) {
+                slots[slot].detach();
+                slots[slot] = null;
+            }
+        }
+
+        for (int i = extras.length - 1; i >= 0; i--) {
+            if (clss.isInstance(extras[i])) {
+                extras[i].detach();
+                removeExtra(i);
+            }
+        }
+
+        // an extra of the same kind moves up when the main one is gone
+        for (int i = extras.length - 1; i >= 0; i--) {
+            int slot = ControllerKind.of(extras[i].getClass()).ordinal();
+            if (slots[slot] == null) {
+                slots[slot] = extras[i];
+                removeExtra(i);
+            }
         }
     }
 
     public <T extends IEntityController> void addController(T controller) {
-        controllers.put(controller.getClass(), controller);
+        int slot = ControllerKind.of(controller.getClass()).ordinal();
+        IEntityController current = slots[slot];
+        if (current == null || current.getClass() == controller.getClass()) {
+            if (current != null && current != controller) {
+                current.detach();
+            }
+            slots[slot] = controller;
+        } else {
+            extras = Arrays.copyOf(extras, extras.length + 1);
+            extras[extras.length - 1] = controller;
+        }
 
         if (controller.getEntity().isLoaded()) {
             controller.attach();
         }
-
-        this.animationController = null;
     }
 
     public <T extends IEntityController> void setController(Class<T> clss, T controller) {
         this.clearControllers(clss);
         this.addController(controller);
-        this.animationController = null;
     }
 
     public void detachAll() {
-        for (IEntityController controller : controllers.values()) {
+        for (IEntityController controller : slots) {
+            if (controller != null) {
+                controller.detach();
+            }
+        }
+        for (IEntityController controller : extras) {
             controller.detach();
         }
     }
 
     public void attachAll() {
-        for (IEntityController controller : controllers.values()) {
+        for (IEntityController controller : slots) {
+            if (controller != null) {
+                controller.attach();
+            }
+        }
+        for (IEntityController controller : extras) {
             controller.attach();
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private <T extends IEntityController> T getExplicitController(Class<T> clss) {
-        // if there's an exact match, return it
-        if (this.controllers.containsKey(clss)) {
-            IEntityController controller = this.controllers.get(clss);
-            if (clss.isInstance(controller)) {
-                return (T) this.controllers.get(clss);
-            }
-        }
-
-        return null;
+    private void removeExtra(int index) {
+        IEntityController[] next = new IEntityController[extras.length - 1];
+        System.arraycopy(extras, 0, next, 0, index);
+        System.arraycopy(extras, index + 1, next, index, extras.length - index - 1);
+        extras = next;
     }
 }
@@ -1,5 +1,10 @@
 package com.gradle.game.entities.player;
 
+import com.gradle.game.input.InputQueue;
+import com.gradle.game.input.InputRecorder;
+import com.gradle.game.net.NetClient;
+import com.gradle.game.profiling.AllocationMeter;
+import com.gradle.game.profiling.TickProfiler;
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.input.Gamepad;
 import de.gurkenlabs.litiengine.input.GamepadEvents;
@@ -22,6 +27,12 @@ public class PlayerGamepadController extends MovementController<Player> {
     private final GamepadEvents.GamepadPressedListener rStickXListener;
     private final GamepadEvents.GamepadPressedListener rStickYListener;
 
+    // made once and posted to the InputQueue, the listeners run on the input thread
+    private final Runnable[] actions;
+    private final Runnable[] stickActions; // window navigation, which has a cooldown
+
+    private final Point2D.Double rotationTarget = new Point2D.Double(); // reused every tick
+
     public PlayerGamepadController(Player player) {
         this(player, Input.gamepads().current().getId());
     }
@@ -36,51 +47,30 @@ public class PlayerGamepadController extends MovementController<Player> {
         this.gamepadId = gamepadId;
         this.rotateWithRightStick = rotateWithRightStick;
 
+        this.actions = PlayerActions.runnables(player);
+        this.stickActions = new Runnable[PlayerActions.COUNT];
+        for (byte action = PlayerActions.WINDOW_UP; action <= PlayerActions.WINDOW_LEFT; action++) {
+            final byte move = action;
+            // the cooldown is checked and reset on the loop thread, which also counts it up
+            this.stickActions[action] = () -> {
+                if (takeInputCooldown()) {
+                    PlayerActions.dispatch(player, move);
+                }
+            };
+        }
+
         // Button inputs here
         this.buttonListener = e -> {
             //System.out.println(e.getComponentId());
-            switch (e.getComponentId()) {
-                case "pov" -> { // dpad
-                    float value = e.getValue();
-                    if (value < 0.375f) { // up
-                        player.loadCreaturesMenu();
-                    }
-//                    else if (value < 0.625f) { // right
-//
-//                    }
-//                    else if (value < 0.875f) { // down
-//
-//                    }
-//                    else { // left
-//
-//                    }
-                }
-                case "0" -> player.enterButton();
-                case "7" -> player.loadPauseMenu(); // pause button
+            byte action = PlayerActions.fromButton(e.getComponentId(), e.getValue());
+            if (action != PlayerActions.NONE) {
+                InputQueue.post(actions[action]);
             }
         };
 
         // right stick listeners
-        this.rStickXListener = e -> {
-            if (inputCooldownTimer > INPUT_COOLDOWN) {
-                if (e.getValue() < 0) {
-                    player.windowLeft();
-                } else {
-                    player.windowRight();
-                }
-                inputCooldownTimer = 0;
-            }
-        };
-        this.rStickYListener = e -> {
-            if (inputCooldownTimer > INPUT_COOLDOWN) {
-                if (e.getValue() < 0) {
-                    player.windowUp();
-                } else {
-                    player.windowDown();
-                }
-                inputCooldownTimer = 0;
-            }
-        };
+        this.rStickXListener = e -> InputQueue.post(stickActions[e.getValue() < 0 ? PlayerActions.WINDOW_LEFT : PlayerActions.WINDOW_RIGHT]);
+        this.rStickYListener = e -> InputQueue.post(stickActions[e.getValue() < 0 ? PlayerActions.WINDOW_UP : PlayerActions.WINDOW_DOWN]);
 
         Input.gamepads().onRemoved(pad -> {
             if (this.gamepadId == pad.getId()) {
@@ -93,6 +83,14 @@ public class PlayerGamepadController extends MovementController<Player> {
         });
     }
 
+    private boolean takeInputCooldown() {
+        if (inputCooldownTimer > INPUT_COOLDOWN) {
+            inputCooldownTimer = 0;
+            return true;
+        }
+        return false;
+    }
+
 //    public int getInputCooldownTimer() {
 //        return inputCooldownTimer;
 //    }
@@ -101,7 +99,11 @@ public class PlayerGamepadController extends MovementController<Player> {
     public void update() {
         inputCooldownTimer++;
         this.retrieveGamepadValues();
+        InputRecorder.axes(this.getEntity().getId(), this.getDx(), this.getDy()); // for replays
+        NetClient.axes(this.getEntity().getId(), this.getDx(), this.getDy()); // and for the server when playing remotely
+        AllocationMeter.enterEngine();
         super.update();
+        AllocationMeter.exitEngine();
     }
 
     //majority of code taken from GamepadEntityController, adjusted for index errors
@@ -133,10 +135,9 @@ public class PlayerGamepadController extends MovementController<Player> {
                 targetY = rightY;
             }
             if (targetX != 0 || targetY != 0) {
-                final Point2D target = new Point2D.Double(
-                        this.getEntity().getCenter().getX() + targetX,
-                        this.getEntity().getCenter().getY() + targetY);
-                final double angle = GeometricUtilities.calcRotationAngleInDegrees(this.getEntity().getCenter(), target);
+                final Point2D center = this.getEntity().getCenter();
+                rotationTarget.setLocation(center.getX() + targetX, center.getY() + targetY);
+                final double angle = GeometricUtilities.calcRotationAngleInDegrees(center, rotationTarget);
                 this.getEntity().setAngle((float) angle);
             }
         }
@@ -152,7 +153,7 @@ public class PlayerGamepadController extends MovementController<Player> {
 
     @Override
     public void attach() {
-        super.attach();
+        TickProfiler.attach(this);
         if(gamepadId != -1) {
             Gamepad gamepad = Input.gamepads().getById(this.gamepadId);
             gamepad.onReleased(this.buttonListener);
@@ -164,7 +165,7 @@ public class PlayerGamepadController extends MovementController<Player> {
 
     @Override
     public void detach() {
-        super.detach();
+        TickProfiler.detach(this);
         Gamepad gamepad = Input.gamepads().getById(this.gamepadId);
         if (gamepad == null) {
             System.err.println("ERROR: gamepad null on detachment.");
@@ -1,5 +1,9 @@
 package com.gradle.game.entities.player;
 
+import com.gradle.game.input.InputQueue;
+import com.gradle.game.input.InputRecorder;
+import com.gradle.game.net.NetClient;
+import com.gradle.game.profiling.AllocationMeter;
 import de.gurkenlabs.litiengine.input.IKeyboard;
 import de.gurkenlabs.litiengine.input.Input;
 import de.gurkenlabs.litiengine.input.KeyboardEntityController;
@@ -11,6 +15,9 @@ public class PlayerKeyboardController extends KeyboardEntityController<Player> {
     private final IKeyboard.KeyTypedListener pauseMenuListener;
     private final IKeyboard.KeyReleasedListener keyListener;
 
+    // posted to the InputQueue, the listeners run on the input thread
+    private final Runnable[] actions;
+
     public PlayerKeyboardController(Player player) {
         super(player);
         this.addUpKey(KeyEvent.VK_UP);
@@ -19,24 +26,26 @@ public class PlayerKeyboardController extends KeyboardEntityController<Player> {
         this.addRightKey(KeyEvent.VK_RIGHT);
 
         //player specific non-movement inputs
-        pauseMenuListener = e -> player.loadPauseMenu();
+        actions = PlayerActions.runnables(player);
+        pauseMenuListener = e -> InputQueue.post(actions[PlayerActions.PAUSE_MENU]);
         keyListener = e -> {
-            switch(e.getKeyCode()) {
-                case KeyEvent.VK_1 -> player.loadCreaturesMenu();
-
-                // window navigation
-                // TODO: raise issue over vk_kp_* codes not working.
-                case KeyEvent.VK_NUMPAD8 -> player.windowUp(); // numpad up
-                case KeyEvent.VK_NUMPAD6 -> player.windowRight(); // numpad right
-                case KeyEvent.VK_NUMPAD2 -> player.windowDown(); // numpad Down
-                case KeyEvent.VK_NUMPAD4 -> player.windowLeft(); // numpad left
-
-                case KeyEvent.VK_ENTER -> player.enterButton();
-                case KeyEvent.VK_SPACE -> player.enterButton();
+            byte action = PlayerActions.fromKey(e.getKeyCode());
+            if (action != PlayerActions.NONE) {
+                InputQueue.post(actions[action]);
             }
         };
     }
 
+    @Override
+    public void update() {
+        // what the arrow keys make of this tick, for replays and for the server when playing remotely
+        InputRecorder.axes(this.getEntity().getId(), this.getDx(), this.getDy());
+        NetClient.axes(this.getEntity().getId(), this.getDx(), this.getDy());
+        AllocationMeter.enterEngine();
+        super.update();
+        AllocationMeter.exitEngine();
+    }
+
     @Override
     public void attach() {
         super.attach();
@@ -14,11 +14,26 @@ public final class PlayerManager {
     private static int currentPlayerNum;
 
     private static final Map<Integer, Player> players = new ConcurrentHashMap<>();
+    // every player ordered by id, as an array and as a list view of it. replaced, never changed, when players join
+    // or leave, so it can be handed out and read every tick without copying. one volatile field, so a reader
+    // never gets the array of one change and the list of another
+    private static final class Snapshot {
+        final Player[] players;
+        final List<Player> all;
+
+        Snapshot(Player[] players) {
+            this.players = players;
+            this.all = Collections.unmodifiableList(Arrays.asList(players));
+        }
+    }
+
+    private static volatile Snapshot snapshot = new Snapshot(new Player[0]);
     private static boolean initialized = false;
 
     public static void init() {
         currentPlayerNum = 1;
         players.put(0, new Player("hoodie"));
+        rebuildSnapshot();
 
         initialized = true;
     }
@@ -37,7 +52,18 @@ public final class PlayerManager {
     }
 
     public static List<Player> getAll() {
-        return players.values().stream().toList();
+        return snapshot.all;
+    }
+
+    // the array is shared, don't change it. it is replaced rather than changed when players join or leave
+    public static Player[] getSnapshot() {
+        return snapshot.players;
+    }
+
+    private static void rebuildSnapshot() {
+        Player[] next = players.values().toArray(new Player[0]);
+        Arrays.sort(next, Comparator.comparingInt(Player::getId));
+        snapshot = new Snapshot(next);
     }
 
     public static Player getByGamepadId(int id) {
@@ -50,24 +76,52 @@ public final class PlayerManager {
         return null;
     }
 
-    public static void addPlayer(String spriteSheetName, String characterName, boolean gamepad) {
+    public static Player addPlayer(String spriteSheetName, String characterName, boolean gamepad) {
         Player player = new Player(spriteSheetName, currentPlayerNum, characterName);
         if (gamepad) {
             player.setController(IMovementController.class, new PlayerGamepadController(player));
             player.setKeyboardControlled(false);
         }
         players.put(currentPlayerNum, player);
+        rebuildSnapshot();
         currentPlayerNum++;
         GameManager.spawnIn(player);
+        return player;
     }
 
-    public static void addPlayer(String spriteSheetName, String characterName, int gamepadId) {
+    public static Player addPlayer(String spriteSheetName, String characterName, int gamepadId) {
         Player player = new Player(spriteSheetName, currentPlayerNum, characterName);
         player.setController(IMovementController.class, new PlayerGamepadController(player, gamepadId));
         player.setKeyboardControlled(false);
         players.put(currentPlayerNum, player);
+        rebuildSnapshot();
+        currentPlayerNum++;
+        GameManager.spawnIn(player);
+        return player;
+    }
+
+    // a player without a save file: remote players, replayed players and the players of the headless harness.
+    // they only last as long as the session that added them
+    public static Player addGuestPlayer(String spriteSheetName, String characterName) {
+        Player player = new Player(spriteSheetName, currentPlayerNum, characterName, false);
+        players.put(currentPlayerNum, player);
+        rebuildSnapshot();
         currentPlayerNum++;
         GameManager.spawnIn(player);
+        return player;
+    }
+
+    // takes the player out of the game and the current room
+    public static void removePlayer(int playerNumber) {
+        Player player = players.remove(playerNumber);
+        if (player == null) {
+            System.out.println("WARNING: tried to remove player " + playerNumber + ", who isn't playing.");
+            return;
+        }
+        rebuildSnapshot();
+        if (Game.world().environment() != null) {
+            Game.world().environment().remove(player);
+        }
     }
 
     public static void saveGames() {
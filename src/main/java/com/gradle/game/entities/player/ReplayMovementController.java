@@ -0,0 +1,30 @@
+package com.gradle.game.entities.player;
+
+import com.gradle.game.profiling.AllocationMeter;
+import de.gurkenlabs.litiengine.physics.MovementController;
+
+// Moves a player the way a recording says. Set by the headless replay in place of the keyboard or gamepad
+// controller; the replay hands it each tick's axes before the tick runs.
+public class ReplayMovementController extends MovementController<Player> {
+
+    private float axisX = 0;
+    private float axisY = 0;
+
+    public ReplayMovementController(Player player) {
+        super(player);
+    }
+
+    public void setAxes(float x, float y) {
+        this.axisX = x;
+        this.axisY = y;
+    }
+
+    @Override
+    public void update() {
+        this.setDx(axisX);
+        this.setDy(axisY);
+        AllocationMeter.enterEngine();
+        super.update();
+        AllocationMeter.exitEngine();
+    }
+}
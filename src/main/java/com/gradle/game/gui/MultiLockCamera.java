@@ -1,40 +1,200 @@
 package com.gradle.game.gui;
 
 import com.gradle.game.entities.player.Player;
+import com.gradle.game.entities.player.PlayerManager;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.environment.Environment;
 import de.gurkenlabs.litiengine.graphics.Camera;
 import java.awt.geom.Point2D;
-import java.util.List;
 
+// Keeps every player in view by following the middle of all of them.
+// The players are read from PlayerManager every update, so players who join or leave are picked up right away.
+//
+// The camera doesn't snap to the players' middle every tick. The middle can wander inside a dead zone
+// around the focus without the camera moving at all. Once it leaves the dead zone, the focus is pulled
+// after it by a critically damped spring: it eases in and out and never overshoots.
+// While the focus is at rest and the zoom holds, setFocus() isn't called, so the viewport and everything cached
+// against it stays as it is.
+// The camera also zooms out, down to MIN_ZOOM, so the box around all players fits into ZOOM_FILL of the
+// screen. Split screen only kicks in once zooming out isn't enough any more, see SplitScreen.
+// All state is plain fields, an update doesn't allocate.
 public class MultiLockCamera extends Camera {
 
-    private List<Player> entities;
+    // world pixels around the focus the players' middle can move in without the camera following
+    private static final double DEAD_ZONE_WIDTH = 48;
+    private static final double DEAD_ZONE_HEIGHT = 32;
+    // roughly the time the spring takes to catch up, in seconds
+    private static final double SMOOTH_TIME = 0.25;
+    // closer than this (in pixels, or pixels per second) counts as at rest
+    private static final double REST = 0.05;
 
-    public MultiLockCamera(List<Player> entities) {
+    private static final float MIN_ZOOM = 0.5f;
+    private static final double ZOOM_FILL = 0.7; // below SplitScreen's split threshold, so zoom goes first
+    private static final double ZOOM_SMOOTH_TIME = 0.5;
+    private static final float ZOOM_STEP = 0.002f; // smaller zoom changes aren't applied
+
+    // where the spring is and where it is going
+    private double focusX = 0;
+    private double focusY = 0;
+    private double velocityX = 0;
+    private double velocityY = 0;
+    private double targetX = 0;
+    private double targetY = 0;
+
+    private double zoom = 1;
+    private double zoomVelocity = 0;
+    private float appliedZoom = 1;
+
+    // the camera jumps instead of gliding over when the room changes
+    private Environment followed = null;
+
+    // reused every frame so following the players doesn't allocate
+    private final Point2D.Double lockedLocation = new Point2D.Double();
+
+    // bounds of the players' centers, worked out with the middle
+    private double spreadX = 0;
+    private double spreadY = 0;
+
+    // loop tick the spring last moved in
+    private long updatedTick = -1;
+
+    public MultiLockCamera() {
         super();
-        this.entities = entities;
         this.updateFocus();
     }
 
     @Override
     public void updateFocus() {
-        final Point2D cameraLocation = this.getLockedCameraLocation();
+        // the game loop calls this once a tick before it renders, and Game.world().setCamera() calls it again when
+        // split screen puts this camera back after drawing its viewports. the spring only moves once a tick
+        long tick = Game.loop().getTicks();
+        if (tick == updatedTick) {
+            return;
+        }
+        updatedTick = tick;
+        if (!this.updatePlayerCenter()) {
+            return;
+        }
+
+        double seconds = Math.min(0.1, Game.loop().getDeltaTime() / 1000.0);
+        Environment environment = Game.world().environment();
+        if (environment != followed) {
+            followed = environment;
+            this.jumpTo(lockedLocation.getX(), lockedLocation.getY());
+        } else {
+            this.follow(lockedLocation.getX(), lockedLocation.getY(), seconds);
+        }
+        this.updateZoom(seconds);
+    }
+
+    // snaps the focus onto the point, for room changes and the first frame
+    private void jumpTo(double x, double y) {
+        focusX = targetX = x;
+        focusY = targetY = y;
+        velocityX = velocityY = 0;
+        this.applyFocus();
+    }
+
+    private void follow(double x, double y, double seconds) {
+        // only the part of the players' middle that leaves the dead zone moves the target
+        double halfWidth = DEAD_ZONE_WIDTH / 2.0;
+        double halfHeight = DEAD_ZONE_HEIGHT / 2.0;
+        if (x < targetX - halfWidth) {
+            targetX = x + halfWidth;
+        } else if (x > targetX + halfWidth) {
+            targetX = x - halfWidth;
+        }
+        if (y < targetY - halfHeight) {
+            targetY = y + halfHeight;
+        } else if (y > targetY + halfHeight) {
+            targetY = y - halfHeight;
+        }
+
+        if (Math.abs(focusX - targetX) < REST && Math.abs(focusY - targetY) < REST
+                && Math.abs(velocityX) < REST && Math.abs(velocityY) < REST) {
+            return; // at rest, leave the viewport alone
+        }
+
+        double omega = 2.0 / SMOOTH_TIME;
+        double decay = decay(omega * seconds);
+
+        double changeX = focusX - targetX;
+        double tempX = (velocityX + omega * changeX) * seconds;
+        velocityX = (velocityX - omega * tempX) * decay;
+        focusX = targetX + (changeX + tempX) * decay;
+
+        double changeY = focusY - targetY;
+        double tempY = (velocityY + omega * changeY) * seconds;
+        velocityY = (velocityY - omega * tempY) * decay;
+        focusY = targetY + (changeY + tempY) * decay;
+
+        this.applyFocus();
+    }
 
-        this.setFocus(cameraLocation);
+    private void applyFocus() {
+        lockedLocation.setLocation(focusX, focusY);
+        this.setFocus(lockedLocation);
         super.updateFocus();
     }
 
+    // zooms out far enough that the box around the players fits, and back in as they come together
+    private void updateZoom(double seconds) {
+        if (Game.window() == null || Game.window().getWidth() <= 0) {
+            return; // headless
+        }
+        double worldWidth = Game.window().getWidth() / Game.graphics().getBaseRenderScale();
+        double worldHeight = Game.window().getHeight() / Game.graphics().getBaseRenderScale();
+        double fit = Math.min(
+                spreadX <= 0 ? 1 : worldWidth * ZOOM_FILL / spreadX,
+                spreadY <= 0 ? 1 : worldHeight * ZOOM_FILL / spreadY);
+        double target = Math.max(MIN_ZOOM, Math.min(1, fit));
+
+        double omega = 2.0 / ZOOM_SMOOTH_TIME;
+        double change = zoom - target;
+        double temp = (zoomVelocity + omega * change) * seconds;
+        zoomVelocity = (zoomVelocity - omega * temp) * decay(omega * seconds);
+        zoom = target + (change + temp) * decay(omega * seconds);
+
+        if (Math.abs(zoom - appliedZoom) >= ZOOM_STEP) {
+            appliedZoom = (float) zoom;
+            this.setZoom(appliedZoom, 0);
+            // the viewport depends on the zoom too, and follow() leaves it alone while the focus is at rest
+            this.applyFocus();
+        }
+    }
+
+    // exp(-x), close enough for the small steps of one tick and without the call
+    private static double decay(double x) {
+        return 1.0 / (1.0 + x + 0.48 * x * x + 0.235 * x * x * x);
+    }
 
-    protected Point2D getLockedCameraLocation() {
-        float x = 0;
-        float y = 0;
-        int size = entities.size();
+    // middle of the players' centers into lockedLocation, and how far apart they are.
+    // returns false if there are no players to follow
+    protected boolean updatePlayerCenter() {
+        Player[] players = PlayerManager.getSnapshot();
+        int size = players.length;
+        if (size == 0) {
+            return false;
+        }
+        double x = 0;
+        double y = 0;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
         for (int counter = 0; counter < size; counter++) {
-            Point2D center = entities.get(counter).getCenter();
-            x += center.getX();
-            y += center.getY();
+            // same as getCenter(), which returns a new point every call
+            Player player = players[counter];
+            double centerX = player.getX() + player.getWidth() / 2.0;
+            double centerY = player.getY() + player.getHeight() / 2.0;
+            x += centerX;
+            y += centerY;
+            minX = Math.min(minX, centerX);
+            minY = Math.min(minY, centerY);
+            maxX = Math.max(maxX, centerX);
+            maxY = Math.max(maxY, centerY);
         }
-        x /= size;
-        y /= size;
-        return new Point2D.Double(x, y);
+        lockedLocation.setLocation(x / size, y / size);
+        spreadX = maxX - minX;
+        spreadY = maxY - minY;
+        return true;
     }
 }
@@ -0,0 +1,81 @@
+package com.gradle.game.gui;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+// One background image drawn behind the room, moving at a fraction of the camera's speed.
+// factor 0 keeps it fixed on the screen (the old BackWall night sky), 1 moves it with the room, anything in
+// between looks further away the closer it is to 0.
+// The image is scaled to the render scale once and kept, so a frame is a single blit, or a row/grid of them
+// for repeating layers.
+public class ParallaxLayer {
+
+    private final BufferedImage source;
+    private final float factorX;
+    private final float factorY;
+    // where the layer's corner is when the viewport is at 0,0, in world pixels
+    private final double offsetX;
+    private final double offsetY;
+    private final boolean repeatX;
+    private final boolean repeatY;
+
+    private BufferedImage scaled = null;
+    private float scaledFor = -1;
+
+    public ParallaxLayer(BufferedImage source, float factor) {
+        this(source, factor, factor, 0, 0, false, false);
+    }
+
+    public ParallaxLayer(BufferedImage source, float factorX, float factorY, double offsetX, double offsetY,
+                         boolean repeatX, boolean repeatY) {
+        this.source = source;
+        this.factorX = factorX;
+        this.factorY = factorY;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.repeatX = repeatX;
+        this.repeatY = repeatY;
+    }
+
+    // viewport corner in world pixels, size of the area to cover in screen pixels
+    void render(Graphics2D g, double viewportX, double viewportY, float scale, int width, int height) {
+        BufferedImage image = this.getScaled(scale);
+        int imageWidth = image.getWidth();
+        int imageHeight = image.getHeight();
+        int x = (int) Math.round((offsetX - viewportX * factorX) * scale);
+        int y = (int) Math.round((offsetY - viewportY * factorY) * scale);
+
+        if (!repeatX && !repeatY) {
+            g.drawImage(image, x, y, null);
+            return;
+        }
+
+        int startX = repeatX ? Math.floorMod(x, imageWidth) - imageWidth : x;
+        int startY = repeatY ? Math.floorMod(y, imageHeight) - imageHeight : y;
+        int endX = repeatX ? width : x + 1;
+        int endY = repeatY ? height : y + 1;
+        for (int drawY = startY; drawY < endY; drawY += imageHeight) {
+            for (int drawX = startX; drawX < endX; drawX += imageWidth) {
+                g.drawImage(image, drawX, drawY, null);
+            }
+        }
+    }
+
+    // the source scaled with nearest neighbour like the rest of the pixel art, made again only if the scale changes
+    private BufferedImage getScaled(float scale) {
+        if (scale == scaledFor) {
+            return scaled;
+        }
+        int width = Math.max(1, Math.round(source.getWidth() * scale));
+        int height = Math.max(1, Math.round(source.getHeight() * scale));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        scaled = image;
+        scaledFor = scale;
+        return scaled;
+    }
+}
@@ -0,0 +1,56 @@
+package com.gradle.game.gui;
+
+import de.gurkenlabs.litiengine.graphics.ICamera;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+// The background layers of the current room, drawn back to front by IngameScreen before the room itself.
+// Layers are added by whatever sets up the room (BackWall markers in the map, for one) and taken out again
+// when it goes. Rendering goes over a plain array, so an extra layer costs one blit.
+public final class ParallaxRenderer {
+    private ParallaxRenderer() {
+    }
+
+    private static ParallaxLayer[] layers = new ParallaxLayer[0];
+
+    // added layers are drawn on top of the ones before them
+    public static void add(ParallaxLayer layer) {
+        layers = Arrays.copyOf(layers, layers.length + 1);
+        layers[layers.length - 1] = layer;
+    }
+
+    public static void remove(ParallaxLayer layer) {
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] == layer) {
+                ParallaxLayer[] next = new ParallaxLayer[layers.length - 1];
+                System.arraycopy(layers, 0, next, 0, i);
+                System.arraycopy(layers, i + 1, next, i, next.length - i);
+                layers = next;
+                return;
+            }
+        }
+    }
+
+    public static void clear() {
+        layers = new ParallaxLayer[0];
+    }
+
+    public static int size() {
+        return layers.length;
+    }
+
+    // width and height are the screen area to cover, the clip decides what actually shows
+    public static void render(Graphics2D g, ICamera camera, int width, int height) {
+        ParallaxLayer[] current = layers; // adds and removes replace the array
+        if (current.length == 0) {
+            return;
+        }
+        Rectangle2D viewport = camera.getViewport();
+        float scale = camera.getRenderScale();
+        for (ParallaxLayer layer : current) {
+            layer.render(g, viewport.getX(), viewport.getY(), scale, width, height);
+        }
+    }
+}
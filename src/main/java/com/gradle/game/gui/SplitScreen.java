@@ -0,0 +1,174 @@
+package com.gradle.game.gui;
+
+import com.gradle.game.entities.player.Player;
+import com.gradle.game.entities.player.PlayerManager;
+
+import java.awt.geom.Rectangle2D;
+
+// Decides whether co-op players share one view or get a viewport each, and lays the viewports out.
+// Players that stay close together share a viewport. Splitting and merging use different distances, so
+// players walking along the edge don't make the screen flicker between the two.
+// All state is kept in arrays that are made once, layout() runs every frame.
+public class SplitScreen {
+
+    public static final int MAX_VIEWPORTS = 4;
+
+    // fractions of the visible world. split once the players spread over more than SPLIT of the view,
+    // go back to one view once they are within MERGE of it again
+    private static final double SPLIT = 0.8;
+    private static final double MERGE = 0.6;
+    // players closer than this fraction of a viewport share it while split
+    private static final double GROUP = 0.5;
+
+    private boolean split = false;
+    private int viewports = 1;
+    private final double[] focusX = new double[MAX_VIEWPORTS];
+    private final double[] focusY = new double[MAX_VIEWPORTS];
+    private final Rectangle2D.Double[] regions = new Rectangle2D.Double[MAX_VIEWPORTS];
+    private final int[] members = new int[MAX_VIEWPORTS];
+
+    private int[] group = new int[4]; // union find parent of each player while grouping
+    private int[] viewportOf = new int[4]; // viewport of each group, by its root player
+    private double[] centerX = new double[4];
+    private double[] centerY = new double[4];
+
+    public SplitScreen() {
+        for (int i = 0; i < MAX_VIEWPORTS; i++) {
+            regions[i] = new Rectangle2D.Double();
+        }
+    }
+
+    // works out the viewports for this frame. worldWidth/Height is how much of the world one full screen shows
+    public void layout(boolean allowed, double screenWidth, double screenHeight, double worldWidth, double worldHeight) {
+        Player[] players = PlayerManager.getSnapshot();
+        int count = players.length;
+        if (group.length < count) {
+            group = new int[count];
+            viewportOf = new int[count];
+            centerX = new double[count];
+            centerY = new double[count];
+        }
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            centerX[i] = players[i].getX() + players[i].getWidth() / 2.0;
+            centerY[i] = players[i].getY() + players[i].getHeight() / 2.0;
+            minX = Math.min(minX, centerX[i]);
+            minY = Math.min(minY, centerY[i]);
+            maxX = Math.max(maxX, centerX[i]);
+            maxY = Math.max(maxY, centerY[i]);
+        }
+
+        if (!allowed || count < 2) {
+            split = false;
+        } else {
+            double spreadX = (maxX - minX) / worldWidth;
+            double spreadY = (maxY - minY) / worldHeight;
+            if (split) {
+                split = spreadX > MERGE || spreadY > MERGE;
+            } else {
+                split = spreadX > SPLIT || spreadY > SPLIT;
+            }
+        }
+
+        if (!split) {
+            viewports = 1;
+            regions[0].setRect(0, 0, screenWidth, screenHeight);
+            return;
+        }
+
+        groupPlayers(count, worldWidth * GROUP, worldHeight * GROUP);
+        placeRegions(screenWidth, screenHeight);
+    }
+
+    public boolean isSplit() {
+        return split;
+    }
+
+    public int getViewports() {
+        return viewports;
+    }
+
+    // screen area of the viewport
+    public Rectangle2D getRegion(int viewport) {
+        return regions[viewport];
+    }
+
+    // world point the viewport is centered on. only meaningful while split
+    public double getFocusX(int viewport) {
+        return focusX[viewport];
+    }
+
+    public double getFocusY(int viewport) {
+        return focusY[viewport];
+    }
+
+    private void groupPlayers(int count, double linkX, double linkY) {
+        for (int i = 0; i < count; i++) {
+            group[i] = i;
+            viewportOf[i] = -1;
+        }
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                if (Math.abs(centerX[i] - centerX[j]) < linkX && Math.abs(centerY[i] - centerY[j]) < linkY) {
+                    group[root(j)] = root(i);
+                }
+            }
+        }
+
+        // number the groups in player order, groups past the last viewport share it
+        viewports = 0;
+        for (int v = 0; v < MAX_VIEWPORTS; v++) {
+            focusX[v] = 0;
+            focusY[v] = 0;
+            members[v] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int root = root(i);
+            if (viewportOf[root] == -1) {
+                viewportOf[root] = Math.min(viewports, MAX_VIEWPORTS - 1);
+                viewports = Math.min(viewports + 1, MAX_VIEWPORTS);
+            }
+            int viewport = viewportOf[root];
+            focusX[viewport] += centerX[i];
+            focusY[viewport] += centerY[i];
+            members[viewport]++;
+        }
+        for (int v = 0; v < viewports; v++) {
+            focusX[v] /= members[v];
+            focusY[v] /= members[v];
+        }
+    }
+
+    private int root(int player) {
+        int current = player;
+        while (group[current] != current) {
+            current = group[current];
+        }
+        return current;
+    }
+
+    private void placeRegions(double width, double height) {
+        double halfWidth = width / 2.0;
+        double halfHeight = height / 2.0;
+        switch (viewports) {
+            case 1 -> regions[0].setRect(0, 0, width, height);
+            case 2 -> {
+                regions[0].setRect(0, 0, halfWidth, height);
+                regions[1].setRect(halfWidth, 0, halfWidth, height);
+            }
+            case 3 -> {
+                regions[0].setRect(0, 0, halfWidth, height);
+                regions[1].setRect(halfWidth, 0, halfWidth, halfHeight);
+                regions[2].setRect(halfWidth, halfHeight, halfWidth, halfHeight);
+            }
+            default -> {
+                regions[0].setRect(0, 0, halfWidth, halfHeight);
+                regions[1].setRect(halfWidth, 0, halfWidth, halfHeight);
+                regions[2].setRect(0, halfHeight, halfWidth, halfHeight);
+                regions[3].setRect(halfWidth, halfHeight, halfWidth, halfHeight);
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.gradle.game.gui;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.environment.tilemap.ITile;
+import de.gurkenlabs.litiengine.environment.tilemap.ITileLayer;
+import de.gurkenlabs.litiengine.graphics.ICamera;
+import de.gurkenlabs.litiengine.graphics.IRenderable;
+import de.gurkenlabs.litiengine.graphics.RenderType;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Draws the tile layers of a room from pre-rendered chunks instead of tile by tile.
+// When a room loads, its tile layers are grouped by render type and hidden from the engine; each group is
+// added back to the room as one renderable of that type, so it still ends up between the same entities.
+// A group draws the chunks (CHUNK_TILES x CHUNK_TILES tiles each) the viewport touches, rendering a chunk the
+// first time it is needed and keeping the most recently used ones. A frame is a few blits.
+//
+// Chunks are in room coordinates, so split screen viewports share them. They are rendered at the base render
+// scale and blitted 1:1; while the camera is zoomed they are scaled on the way out instead of rendered again.
+//
+// Layers with the custom property "dynamic" set are left to the engine, use it for animated tiles. So are
+// layers with tiles bigger than the grid: those reach into the neighbouring cells and would be cut at chunk edges.
+// Whatever changes a tile of a chunked layer has to call invalidate() for it.
+public final class TileChunkCache {
+    private TileChunkCache() {
+    }
+
+    public static final int CHUNK_TILES = Integer.getInteger("game.tileChunk", 8);
+    private static final int MAX_CHUNKS = 48;
+
+    private static final String DYNAMIC_PROPERTY = "dynamic";
+    private static final String CHUNKED_PROPERTY = "chunked"; // set on layers that are hidden and drawn from chunks
+
+    // least recently used first. key: group, chunk column and row, see key()
+    private static final LinkedHashMap<Long, BufferedImage> chunks = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_CHUNKS;
+        }
+    };
+
+    private static boolean enabled = !"false".equals(System.getProperty("game.tileChunks"));
+    private static int nextGroup = 0;
+    private static IMap map = null;
+    private static long rendered = 0; // chunks rendered since start, to see how well the cache does
+
+    public static void init() {
+        Game.world().onLoaded(TileChunkCache::roomLoaded);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // only affects rooms loaded afterwards. can also be turned off with -Dgame.tileChunks=false
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    // call after changing the tile at the given tile coordinates, in any chunked layer
+    public static void invalidate(int tileX, int tileY) {
+        int column = Math.floorDiv(tileX, CHUNK_TILES);
+        int row = Math.floorDiv(tileY, CHUNK_TILES);
+        Iterator<Long> keys = chunks.keySet().iterator();
+        while (keys.hasNext()) {
+            long key = keys.next();
+            if (columnOf(key) == column && rowOf(key) == row) {
+                keys.remove();
+            }
+        }
+    }
+
+    public static void invalidateAll() {
+        chunks.clear();
+    }
+
+    public static int size() {
+        return chunks.size();
+    }
+
+    public static long getRenderedCount() {
+        return rendered;
+    }
+
+    private static void roomLoaded(Environment e) {
+        chunks.clear();
+        map = e.getMap();
+        if (!enabled) {
+            return;
+        }
+
+        // the engine can hand out the same room again, its layers are already chunked then
+        for (ITileLayer layer : map.getTileLayers()) {
+            if (layer.getBoolValue(CHUNKED_PROPERTY)) {
+                return;
+            }
+        }
+
+        Map<RenderType, List<ITileLayer>> groups = new LinkedHashMap<>();
+        for (ITileLayer layer : map.getTileLayers()) {
+            if (!layer.isVisible() || layer.getBoolValue(DYNAMIC_PROPERTY) || hasOversizedTiles(layer)) {
+                continue;
+            }
+            groups.computeIfAbsent(layer.getRenderType(), type -> new ArrayList<>()).add(layer);
+        }
+        for (Map.Entry<RenderType, List<ITileLayer>> group : groups.entrySet()) {
+            for (ITileLayer layer : group.getValue()) {
+                layer.setVisible(false);
+                layer.setValue(CHUNKED_PROPERTY, true);
+            }
+            e.add(new ChunkedLayers(nextGroup++, group.getValue().toArray(new ITileLayer[0])), group.getKey());
+        }
+    }
+
+    private static boolean hasOversizedTiles(ITileLayer layer) {
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWidth(); x++) {
+                ITile tile = layer.getTile(x, y);
+                if (tile == null || tile.getGridId() == 0 || tile.getImage() == null) {
+                    continue;
+                }
+                BufferedImage image = tile.getImage();
+                if (image.getWidth() > map.getTileWidth() || image.getHeight() > map.getTileHeight()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long key(int group, int column, int row) {
+        return ((long) group << 40) | ((long) (column & 0xFFFFF) << 20) | (row & 0xFFFFF);
+    }
+
+    private static int columnOf(long key) {
+        return (int) ((key >>> 20) & 0xFFFFF);
+    }
+
+    private static int rowOf(long key) {
+        return (int) (key & 0xFFFFF);
+    }
+
+    // the static tile layers of one render type of a room, in map order
+    private static final class ChunkedLayers implements IRenderable {
+        private final int group;
+        private final ITileLayer[] layers;
+
+        ChunkedLayers(int group, ITileLayer[] layers) {
+            this.group = group;
+            this.layers = layers;
+        }
+
+        @Override
+        public void render(Graphics2D g) {
+            ICamera camera = Game.world().camera();
+            if (camera == null || map == null) {
+                return;
+            }
+            int tileWidth = map.getTileWidth();
+            int tileHeight = map.getTileHeight();
+            int chunkWidth = CHUNK_TILES * tileWidth;
+            int chunkHeight = CHUNK_TILES * tileHeight;
+            int columns = (map.getWidth() + CHUNK_TILES - 1) / CHUNK_TILES;
+            int rows = (map.getHeight() + CHUNK_TILES - 1) / CHUNK_TILES;
+
+            Rectangle2D viewport = camera.getViewport();
+            float scale = camera.getRenderScale();
+            float chunkScale = Game.graphics().getBaseRenderScale();
+            int firstColumn = Math.max(0, (int) Math.floor(viewport.getMinX() / chunkWidth));
+            int lastColumn = Math.min(columns - 1, (int) Math.floor(viewport.getMaxX() / chunkWidth));
+            int firstRow = Math.max(0, (int) Math.floor(viewport.getMinY() / chunkHeight));
+            int lastRow = Math.min(rows - 1, (int) Math.floor(viewport.getMaxY() / chunkHeight));
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    BufferedImage chunk = this.getChunk(column, row, chunkScale);
+                    int x = (int) Math.round((column * chunkWidth - viewport.getX()) * scale);
+                    int y = (int) Math.round((row * chunkHeight - viewport.getY()) * scale);
+                    if (scale == chunkScale) {
+                        g.drawImage(chunk, x, y, null);
+                    } else {
+                        // round the far edge too, so neighbouring chunks meet without a gap
+                        int right = (int) Math.round(((column + 1) * chunkWidth - viewport.getX()) * scale);
+                        int bottom = (int) Math.round(((row + 1) * chunkHeight - viewport.getY()) * scale);
+                        g.drawImage(chunk, x, y, right - x, bottom - y, null);
+                    }
+                }
+            }
+        }
+
+        private BufferedImage getChunk(int column, int row, float scale) {
+            long key = key(group, column, row);
+            BufferedImage chunk = chunks.get(key);
+            if (chunk == null || chunk.getWidth() != Math.round(CHUNK_TILES * map.getTileWidth() * scale)) {
+                chunk = this.renderChunk(column, row, scale);
+                chunks.put(key, chunk);
+            }
+            return chunk;
+        }
+
+        private BufferedImage renderChunk(int column, int row, float scale) {
+            int tileWidth = map.getTileWidth();
+            int tileHeight = map.getTileHeight();
+            BufferedImage chunk = new BufferedImage(Math.round(CHUNK_TILES * tileWidth * scale),
+                    Math.round(CHUNK_TILES * tileHeight * scale), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = chunk.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.scale(scale, scale);
+
+            int firstX = column * CHUNK_TILES;
+            int firstY = row * CHUNK_TILES;
+            int lastX = Math.min(map.getWidth(), firstX + CHUNK_TILES);
+            int lastY = Math.min(map.getHeight(), firstY + CHUNK_TILES);
+            Composite composite = g.getComposite();
+            for (ITileLayer layer : layers) {
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, layer.getOpacity()));
+                for (int y = firstY; y < lastY; y++) {
+                    for (int x = firstX; x < lastX; x++) {
+                        ITile tile = layer.getTile(x, y);
+                        if (tile == null || tile.getGridId() == 0 || tile.getImage() == null) {
+                            continue;
+                        }
+                        // tiles bigger than the grid never get here, see hasOversizedTiles()
+                        g.drawImage(tile.getImage(), (x - firstX) * tileWidth, (y - firstY) * tileHeight, null);
+                    }
+                }
+            }
+            g.setComposite(composite);
+            g.dispose();
+            rendered++;
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.gradle.game.gui;
+
+import de.gurkenlabs.litiengine.graphics.Camera;
+
+import java.awt.geom.Point2D;
+
+// The camera of one split screen viewport. It doesn't follow anything by itself, IngameScreen points it at its
+// group of players every frame and renders the room through it, so the players' MultiLockCamera is never moved
+// for a viewport. It isn't clamped to the map, that would pull the viewport off its players near the edges.
+// Its viewport is worked out when Game.world().setCamera() calls updateFocus().
+public class ViewportCamera extends Camera {
+
+    private final Point2D.Double focus = new Point2D.Double();
+    private float appliedZoom = 1;
+
+    public ViewportCamera() {
+        super();
+        this.setClampToMap(false);
+    }
+
+    // world point in the middle of the camera's view, and the zoom of the camera the players share
+    public void show(double focusX, double focusY, float zoom) {
+        if (zoom != appliedZoom) {
+            appliedZoom = zoom;
+            this.setZoom(zoom, 0);
+        }
+        if (focus.getX() != focusX || focus.getY() != focusY) {
+            focus.setLocation(focusX, focusY);
+            this.setFocus(focus);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.gradle.game.entities.player.PlayerGamepadController;
 import com.gradle.game.entities.player.PlayerKeyboardController;
 import com.gradle.game.entities.player.PlayerManager;
 import com.gradle.game.gui.FontTypes;
+import com.gradle.game.input.InputQueue;
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.gui.GuiComponent;
 import de.gurkenlabs.litiengine.gui.GuiProperties;
@@ -31,41 +32,45 @@ public class ControllerScreen extends MenuScreen {
         super("MENU-CONTROLLERS");
         this.mouseEnabled = false;
 
-        this.keyListener = event -> {
-
-            // check if keyboard has been selected
-            if (menu.getCellComponents().get(0).isEnabled()) {
-                PlayerManager.get(currentPlayer).setController(
-                        MovementController.class,
-                        new PlayerKeyboardController(PlayerManager.get(currentPlayer))
-                );
-                PlayerManager.get(currentPlayer).setKeyboardControlled(true);
-                menu.getCellComponents().get(0).setEnabled(false);
-                menuOptionSelect();
-            }
+        // both listeners run on input threads, the choice is made on the loop thread
+        this.keyListener = event -> InputQueue.post(this::selectKeyboard);
+        this.gamepadReleasedListener = event -> {
+            final int id = event.getGamepad().getId();
+            InputQueue.post(() -> selectGamepad(id));
         };
 
-        this.gamepadReleasedListener = event -> {
-            int id = event.getGamepad().getId();
+        //TODO: gamepad removed listener for safety
+    }
 
-            // check if gamepad has already been selected
-            if (!selectedGamepads.contains(id)) {
-                selectedGamepads.add(id);
-                PlayerManager.get(currentPlayer).setController(
-                        MovementController.class,
-                        new PlayerGamepadController(PlayerManager.get(currentPlayer), id)
-                );
-                PlayerManager.get(currentPlayer).setKeyboardControlled(false);
+    private void selectKeyboard() {
+        // check if keyboard has been selected
+        if (menu.getCellComponents().get(0).isEnabled()) {
+            PlayerManager.get(currentPlayer).setController(
+                    MovementController.class,
+                    new PlayerKeyboardController(PlayerManager.get(currentPlayer))
+            );
+            PlayerManager.get(currentPlayer).setKeyboardControlled(true);
+            menu.getCellComponents().get(0).setEnabled(false);
+            menuOptionSelect();
+        }
+    }
 
-                menu.getCellComponents().get(currentGamepad).setEnabled(false);
+    private void selectGamepad(int id) {
+        // check if gamepad has already been selected
+        if (!selectedGamepads.contains(id)) {
+            selectedGamepads.add(id);
+            PlayerManager.get(currentPlayer).setController(
+                    MovementController.class,
+                    new PlayerGamepadController(PlayerManager.get(currentPlayer), id)
+            );
+            PlayerManager.get(currentPlayer).setKeyboardControlled(false);
 
-                currentGamepad++;
+            menu.getCellComponents().get(currentGamepad).setEnabled(false);
 
-                menuOptionSelect();
-            }
-        };
+            currentGamepad++;
 
-        //TODO: gamepad removed listener for safety
+            menuOptionSelect();
+        }
     }
 
     @Override
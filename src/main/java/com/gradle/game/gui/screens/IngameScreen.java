@@ -1,13 +1,48 @@
 package com.gradle.game.gui.screens;
+import com.gradle.game.GameManager;
+import com.gradle.game.GameType;
 import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.gui.ParallaxRenderer;
+import com.gradle.game.gui.SplitScreen;
+import com.gradle.game.gui.ViewportCamera;
 import com.gradle.game.gui.windows.WindowManager;
-import de.gurkenlabs.litiengine.gui.screens.GameScreen;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.graphics.ICamera;
+import de.gurkenlabs.litiengine.gui.screens.Screen;
 
-public class IngameScreen extends GameScreen {
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.Rectangle2D;
+
+// Renders the room itself instead of leaving it to GameScreen, so co-op players who wander apart
+// can each get a part of the screen (see SplitScreen). Background layers go first, behind the room.
+// Split, every viewport renders through a camera of its own. The static tiles come from TileChunkCache, which
+// all viewports share. Entity culling isn't shared: Environment.render() culls every entity against
+// Game.world().camera() and takes no visible set from outside, so entities are culled once per viewport.
+//
+// The engine renders on the loop thread, after the tick's updates and the camera's updateFocus(). It only renders
+// through Game.world().camera(), so each viewport camera is made the world camera while its region is drawn and
+// the players' camera is put back afterwards. Every Game.world().setCamera() detaches the old camera from the
+// loop, attaches the new one and calls its updateFocus(), so a frame split into n viewports pays for n + 1 of
+// those. MultiLockCamera ignores the updateFocus() of the one that puts it back.
+public class IngameScreen extends Screen {
     public static final String NAME = "INGAME-SCREEN";
 
+    private static final Color DIVIDER_COLOR = Color.BLACK;
+    private static final Stroke DIVIDER_STROKE = new BasicStroke(2f);
+
+    private final SplitScreen splitScreen = new SplitScreen();
+    private final ViewportCamera[] viewportCameras = new ViewportCamera[SplitScreen.MAX_VIEWPORTS];
+
     public IngameScreen() {
         super(NAME);
+        for (int i = 0; i < viewportCameras.length; i++) {
+            viewportCameras[i] = new ViewportCamera();
+        }
     }
 
     @Override
@@ -16,4 +51,61 @@ public class IngameScreen extends GameScreen {
         WindowManager.suspendAll();
         PlayerManager.unFreezePlayers();
     }
+
+    @Override
+    public void render(final Graphics2D g) {
+        Environment environment = Game.world().environment();
+        ICamera camera = Game.world().camera();
+        // the first frames after switching rooms can come before the camera is set (see crash.txt)
+        if (environment != null && camera != null) {
+            renderWorld(g, environment, camera);
+        }
+        super.render(g);
+    }
+
+    private void renderWorld(Graphics2D g, Environment environment, ICamera camera) {
+        double width = Game.window().getWidth();
+        double height = Game.window().getHeight();
+        float scale = camera.getRenderScale();
+        splitScreen.layout(GameManager.getCurrentGameType() == GameType.COOP, width, height, width / scale, height / scale);
+
+        if (!splitScreen.isSplit()) {
+            ParallaxRenderer.render(g, camera, (int) width, (int) height);
+            environment.render(g);
+            return;
+        }
+
+        // each viewport camera stands in for the players' camera while its viewport is drawn. it is focused so the
+        // middle of the viewport's region shows the middle of its players
+        Shape clip = g.getClip();
+        float zoom = scale / Game.graphics().getBaseRenderScale();
+        try {
+            for (int i = 0; i < splitScreen.getViewports(); i++) {
+                Rectangle2D region = splitScreen.getRegion(i);
+                ViewportCamera viewportCamera = viewportCameras[i];
+                viewportCamera.show(
+                        splitScreen.getFocusX(i) - (region.getCenterX() - width / 2.0) / scale,
+                        splitScreen.getFocusY(i) - (region.getCenterY() - height / 2.0) / scale,
+                        zoom);
+                Game.world().setCamera(viewportCamera);
+                g.setClip(clip);
+                g.clip(region);
+                ParallaxRenderer.render(g, viewportCamera, (int) width, (int) height);
+                environment.render(g);
+            }
+        } finally {
+            g.setClip(clip);
+            Game.world().setCamera(camera);
+        }
+
+        Color color = g.getColor();
+        Stroke stroke = g.getStroke();
+        g.setColor(DIVIDER_COLOR);
+        g.setStroke(DIVIDER_STROKE);
+        for (int i = 0; i < splitScreen.getViewports(); i++) {
+            g.draw(splitScreen.getRegion(i));
+        }
+        g.setColor(color);
+        g.setStroke(stroke);
+    }
 }
@@ -2,6 +2,8 @@ package com.gradle.game.gui.screens;
 
 import com.gradle.game.Sounds;
 import com.gradle.game.gui.FontTypes;
+import com.gradle.game.input.InputQueue;
+import com.gradle.game.profiling.TickProfiler;
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.IUpdateable;
 import de.gurkenlabs.litiengine.gui.GuiComponent;
@@ -30,45 +32,30 @@ public abstract class MenuScreen extends Screen implements IUpdateable {
     protected GamepadEvents.GamepadReleasedListener gamepadButtonListener;
     protected GamepadEvents.GamepadPressedListener gamepadStickListener;
 
+    // the listeners run on the input threads, so they post these to the InputQueue instead of touching the menu
+    private final Runnable selectionUp = () -> moveSelection(-1);
+    private final Runnable selectionDown = () -> moveSelection(1);
+    private final Runnable select = this::menuOptionSelectWrapper;
+    private final Runnable backToGame = () -> Game.screens().display("INGAME-SCREEN");
+
     protected MenuScreen(String screenName) {
         super(screenName);
 
         //used for keyboard input. added to Input by prepare.
         keyListener = event -> {
-            if (isSuspended()) {
-                return;
-            }
-
-            initMenuKeyboardNav(event.getKeyCode());
-
-            if ((event.getKeyCode() == KeyEvent.VK_ENTER || event.getKeyCode() == KeyEvent.VK_SPACE) && menu.isEnabled()) {
-                //Game.audio().playSound("confirm.wav");
-                menuOptionSelectWrapper();
-            }
+            final int keyCode = event.getKeyCode();
+            InputQueue.post(() -> handleKey(keyCode));
         };
 
-        gamepadStickListener = event -> { // Left stick Y
-            if (inputCooldownTimer > INPUT_COOLDOWN) {
-                if (event.getValue() < 0) {
-                    menu.setCurrentSelection(Math.max(0, menu.getCurrentSelection() - 1));
-                } else {
-                    menu.setCurrentSelection(Math.min(options, menu.getCurrentSelection() + 1));
-                }
-                for (ImageComponent comp : menu.getCellComponents()) {
-                    comp.setHovered(false);
-                }
-                menu.getCellComponents().get(menu.getCurrentSelection()).setHovered(true);
-                inputCooldownTimer = 0;
-            }
-        };
+        gamepadStickListener = event -> InputQueue.post(event.getValue() < 0 ? selectionUp : selectionDown); // Left stick Y
         gamepadButtonListener = event -> {
             switch (event.getComponentId()) {
-                case "0" -> menuOptionSelectWrapper();
-                case "1" -> Game.screens().display("INGAME-SCREEN");
+                case "0" -> InputQueue.post(select);
+                case "1" -> InputQueue.post(backToGame);
             }
         };
 
-        Game.loop().attach(this);
+        TickProfiler.attach(this);
     }
 
     // override to change title
@@ -171,6 +158,36 @@ public abstract class MenuScreen extends Screen implements IUpdateable {
         Game.audio().playSound(Sounds.MENU_SELECT);
     }
 
+    // keyboard input, run on the loop thread
+    private void handleKey(int keyCode) {
+        if (isSuspended()) {
+            return;
+        }
+
+        initMenuKeyboardNav(keyCode);
+
+        if ((keyCode == KeyEvent.VK_ENTER || keyCode == KeyEvent.VK_SPACE) && menu.isEnabled()) {
+            //Game.audio().playSound("confirm.wav");
+            menuOptionSelectWrapper();
+        }
+    }
+
+    // gamepad stick input, run on the loop thread
+    private void moveSelection(int step) {
+        if (inputCooldownTimer > INPUT_COOLDOWN) {
+            if (step < 0) {
+                menu.setCurrentSelection(Math.max(0, menu.getCurrentSelection() - 1));
+            } else {
+                menu.setCurrentSelection(Math.min(options, menu.getCurrentSelection() + 1));
+            }
+            for (ImageComponent comp : menu.getCellComponents()) {
+                comp.setHovered(false);
+            }
+            menu.getCellComponents().get(menu.getCurrentSelection()).setHovered(true);
+            inputCooldownTimer = 0;
+        }
+    }
+
     // don't override. this makes life easy
     private void initMenuKeyboardNav(int keycode) {
         if (keycode == KeyEvent.VK_UP || keycode == KeyEvent.VK_W || keycode == KeyEvent.VK_DOWN || keycode == KeyEvent.VK_S) {
@@ -94,7 +94,8 @@ public class BattleWindow extends Window{
         Game.audio().playSound(Sounds.MENU_SELECT);
     }
 
-    private void afterMove() {;
+    private void afterMove() {
+        this.markDirty();
         Game.audio().playSound(Sounds.MENU_HOVER);
     }
 
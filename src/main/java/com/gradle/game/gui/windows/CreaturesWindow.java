@@ -72,6 +72,7 @@ public class CreaturesWindow extends Window {
             comp.setHovered(false);
         }
         this.menu.getCellComponents().get(this.menu.getCurrentSelection()).setHovered(true);
+        this.markDirty();
         Game.audio().playSound(Sounds.MENU_HOVER);
     }
 
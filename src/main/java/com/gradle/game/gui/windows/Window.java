@@ -13,8 +13,13 @@ import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.font.FontRenderContext;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+// Windows are drawn retained: the window and everything in it is rendered into an image that is only drawn again
+// after markDirty(), and a frame is one blit of that image. Subclasses call markDirty() whenever what they show
+// changes (selection, text). Mouse hover, showing the window and resizing it mark it dirty on their own,
+// moving it (dragging the header) only moves the image.
 public abstract class Window extends GuiComponent {
 
     // Parameter variables
@@ -23,6 +28,9 @@ public abstract class Window extends GuiComponent {
     protected static final int HEADER_HEIGHT = FONT.getSize()+(HEADER_OFFSET*2);
     protected static final int DEFAULT_WIDTH = 350;
     protected static final int DEFAULT_HEIGHT = 350;
+    private static final int BORDER_WIDTH = 6;
+    private static final int CACHE_MARGIN = BORDER_WIDTH / 2 + 1; // the border is stroked half outside the bounds
+    private static final Color CLEAR = new Color(0, 0, 0, 0);
 
     // Component variables
     protected GuiComponent header;
@@ -38,6 +46,10 @@ public abstract class Window extends GuiComponent {
     private double headerPercentageX;
     private double headerPercentageY;
 
+    // rendered window, drawn again when dirty. set from input listeners, cleared when the loop renders the window
+    private BufferedImage cache;
+    private volatile boolean dirty = true;
+
     public Window(String name, int playerId) {
         this(name, playerId, Game.window().getWidth()*0.2, Game.window().getHeight()*0.2);
     }
@@ -135,15 +147,67 @@ public abstract class Window extends GuiComponent {
         body = buildBody(this.getX(), this.getY()+HEADER_HEIGHT, getWidth(), getHeight()-HEADER_HEIGHT);
 
         // Window Border.
-        this.getAppearance().setBorderStyle(new BasicStroke(6));
+        this.getAppearance().setBorderStyle(new BasicStroke(BORDER_WIDTH));
         this.getAppearance().setBorderColor(Color.BLACK);
-        this.getAppearanceHovered().setBorderStyle(new BasicStroke(6));
+        this.getAppearanceHovered().setBorderStyle(new BasicStroke(BORDER_WIDTH));
         this.getAppearanceHovered().setBorderColor(Color.BLACK);
 
+        // hovering changes how the components look, the cached image has to follow
+        this.onMouseMoved(e -> this.markDirty());
+        this.onMouseLeave(e -> this.markDirty());
+        this.onMousePressed(e -> this.markDirty());
+        this.onMouseReleased(e -> this.markDirty());
+
         this.getComponents().add(header);
         this.getComponents().add(body);
     }
 
+    @Override
+    public void render(Graphics2D g) {
+        if (this.isSuspended() || !this.isVisible()) {
+            return;
+        }
+
+        int x = (int) Math.floor(this.getX());
+        int y = (int) Math.floor(this.getY());
+        int width = (int) Math.ceil(this.getWidth()) + CACHE_MARGIN * 2;
+        int height = (int) Math.ceil(this.getHeight()) + CACHE_MARGIN * 2;
+        // suspend() can drop the cache from another thread, so work on a local
+        BufferedImage image = cache;
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            cache = image;
+            dirty = true;
+        }
+        if (dirty) {
+            // cleared first, so a change that comes in while drawing isn't lost
+            dirty = false;
+            Graphics2D cacheGraphics = image.createGraphics();
+            cacheGraphics.setBackground(CLEAR);
+            cacheGraphics.clearRect(0, 0, width, height);
+            cacheGraphics.setRenderingHints(g.getRenderingHints());
+            // components draw at their screen position, which is the image's corner plus the margin
+            cacheGraphics.translate(CACHE_MARGIN - x, CACHE_MARGIN - y);
+            super.render(cacheGraphics);
+            cacheGraphics.dispose();
+        }
+        g.drawImage(image, x - CACHE_MARGIN, y - CACHE_MARGIN, null);
+    }
+
+    // call after anything shown in the window changed, it is drawn again on the next frame
+    public void markDirty() {
+        dirty = true;
+    }
+
+    // moving only moves the cached image, anything else (size, opacity) changes what is in it
+    @Override
+    public void setTweenValues(TweenType tweenType, float[] newValues) {
+        super.setTweenValues(tweenType, newValues);
+        if (tweenType != TweenType.POSITION_X && tweenType != TweenType.POSITION_Y && tweenType != TweenType.POSITION_XY) {
+            this.markDirty();
+        }
+    }
+
     protected abstract GuiComponent buildBody(double x, double y, double width, double height);
 
     protected abstract String getTitle();
@@ -163,6 +227,7 @@ public abstract class Window extends GuiComponent {
     @Override
     public void prepare() {
         super.prepare();
+        this.markDirty();
 
         PlayerManager.get(playerId).addActiveWindow(this);
     }
@@ -170,6 +235,7 @@ public abstract class Window extends GuiComponent {
     @Override
     public void suspend() {
         super.suspend();
+        cache = null;
 
         PlayerManager.get(playerId).removeActiveWindow(this);
 
@@ -0,0 +1,98 @@
+package com.gradle.game.headless;
+
+import com.gradle.game.profiling.AllocationMeter;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.UpdateLoop;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// Steps Game.loop() by hand instead of letting its thread run at the configured fps.
+// Game.start() must NOT be called when using this, or the loop thread and this driver both tick.
+//
+// The engine keeps the per-tick work in UpdateLoop.process(), which is protected, so it is called
+// through reflection. The loop's tick count is advanced like its thread would, so timed actions and
+// Game.time() work, and the delta time is pinned to the step so movement covers the same distance per tick
+// as it would in game. A replay sets the step of every tick to the one that was recorded.
+public class FixedStepDriver {
+
+    private static final Object[] NO_ARGS = new Object[0]; // invoke() would make a new empty array each tick
+
+    private final Method process;
+    private final Field deltaTime;
+    private final Field totalTicks;
+    private long stepMillis;
+    private long ticks = 0;
+
+    public FixedStepDriver(int tickRate) {
+        this.stepMillis = Math.max(1, 1000 / tickRate);
+        this.process = findMethod(Game.loop().getClass(), "process");
+        this.deltaTime = findField(Game.loop().getClass(), "deltaTime");
+        this.totalTicks = findField(Game.loop().getClass(), "totalTicks");
+        this.process.setAccessible(true);
+        if (this.totalTicks != null) {
+            this.totalTicks.setAccessible(true);
+        } else {
+            System.out.println("WARNING: game loop has no totalTicks field, timed actions won't run while stepping.");
+        }
+        if (this.deltaTime != null) {
+            this.deltaTime.setAccessible(true);
+        } else {
+            System.out.println("WARNING: game loop has no deltaTime field, entities may not move while stepping.");
+        }
+    }
+
+    // runs one tick of everything attached to Game.loop(), returns how long it took in nanoseconds
+    public long step() {
+        long start = System.nanoTime();
+        try {
+            if (this.totalTicks != null) {
+                this.totalTicks.setLong(Game.loop(), this.totalTicks.getLong(Game.loop()) + 1);
+            }
+            if (this.deltaTime != null) {
+                this.deltaTime.setLong(Game.loop(), stepMillis);
+            }
+            AllocationMeter.tickStart();
+            this.process.invoke(Game.loop(), NO_ARGS);
+            AllocationMeter.tickEnd();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("ERROR: cannot step game loop", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("ERROR: game loop threw during step", e.getCause());
+        }
+        ticks++;
+        return System.nanoTime() - start;
+    }
+
+    // the delta time of the following steps
+    public void setStepMillis(long millis) {
+        this.stepMillis = millis;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredMethod(name);
+            } catch (NoSuchMethodException ignored) {
+                // keep looking in the parent
+            }
+        }
+        throw new IllegalStateException("ERROR: " + UpdateLoop.class.getName() + "." + name + "() not found");
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // keep looking in the parent
+            }
+        }
+        return null;
+    }
+}
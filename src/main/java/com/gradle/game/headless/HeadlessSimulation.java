@@ -0,0 +1,254 @@
+package com.gradle.game.headless;
+
+import com.gradle.game.GameManager;
+import com.gradle.game.GameTick;
+import com.gradle.game.entities.mobs.MobPool;
+import com.gradle.game.entities.mobs.MobSystem;
+import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.gui.screens.IngameScreen;
+import com.gradle.game.input.InputReplay;
+import com.gradle.game.profiling.AllocationMeter;
+import com.gradle.game.profiling.TickProfiler;
+import com.sun.management.ThreadMXBean;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.Spawnpoint;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.resources.Resources;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+// Load test for rooms. Runs the game logic without a window and steps the loop as fast as the cpu allows.
+//
+// usage: HeadlessSimulation [--map=mansion] [--mobs=10,100,1000,10000] [--players=1] [--ticks=600]
+//                           [--warmup=120] [--tickrate=60] [--seed=42] [--profile=tick-profile.txt]
+//                           [--max-alloc=bytes] [--max-own-alloc=bytes] [--replay=recording.bin]
+// or:    gradlew simulate --args="--mobs=10,1000"
+//
+// --max-alloc turns the run into an allocation check: if a steady state tick allocates more than the given
+// amount of bytes on average, the run fails with exit code 1. That counts the engine too.
+// --max-own-alloc leaves out the engine calls our code makes (see AllocationMeter), the run fails if the rest of
+// the tick allocates more than the given bytes per tick. "gradlew allocationCheck" runs it for 500 mobs.
+//
+// --replay=file plays back a log recorded with -Dgame.record=file instead: same map, seed and players as the
+// recorded session, only the room's own mobs, and as many ticks as were recorded.
+public class HeadlessSimulation {
+
+    private String map = "mansion";
+    private int[] mobCounts = {10, 100, 1000, 10000};
+    private int players = 1;
+    private int ticks = 600;
+    private int warmup = 120;
+    private int tickRate = 60;
+    private long seed = 42;
+    private String profile = null;
+    private long maxAlloc = -1;
+    private long maxOwnAlloc = -1;
+    private InputReplay replay = null;
+
+    // amount of mobs the next environment load should get spawnpoints for
+    private int pendingMobs = 0;
+
+    public static void main(String[] args) {
+        HeadlessSimulation simulation = new HeadlessSimulation();
+        simulation.parse(args);
+        simulation.boot();
+        boolean passed = simulation.replay != null ? simulation.runReplay() : simulation.run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    private InputReplay openReplay(String file) {
+        InputReplay opened;
+        try {
+            opened = InputReplay.open(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("ERROR: cannot read input recording " + file + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+        map = opened.getMap();
+        seed = opened.getWorldSeed();
+        players = opened.getPlayers();
+        return opened;
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                System.out.println("WARNING: ignoring argument " + arg);
+                continue;
+            }
+            switch (pair[0]) {
+                case "--map" -> map = pair[1];
+                case "--mobs" -> mobCounts = Arrays.stream(pair[1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--players" -> players = Integer.parseInt(pair[1]);
+                case "--ticks" -> ticks = Integer.parseInt(pair[1]);
+                case "--warmup" -> warmup = Integer.parseInt(pair[1]);
+                case "--tickrate" -> tickRate = Integer.parseInt(pair[1]);
+                case "--seed" -> seed = Long.parseLong(pair[1]);
+                case "--profile" -> profile = pair[1];
+                case "--max-alloc" -> maxAlloc = Long.parseLong(pair[1]);
+                case "--max-own-alloc" -> maxOwnAlloc = Long.parseLong(pair[1]);
+                case "--replay" -> replay = openReplay(pair[1]);
+                default -> System.out.println("WARNING: unknown argument " + pair[0]);
+            }
+        }
+    }
+
+    // same setup as GameApp, minus the window and menus
+    private void boot() {
+        // must be on before anything attaches itself to the loop
+        TickProfiler.setEnabled(profile != null);
+        AllocationMeter.setEnabled(maxOwnAlloc >= 0);
+
+        Game.init(Game.COMMANDLINE_ARG_NOGUI);
+        GameTick.init();
+        Resources.load("game.litidata");
+        Game.screens().add(new IngameScreen());
+        GameManager.init();
+        GameManager.setWorldSeed(seed); // same seed, same mob wandering
+
+        for (int i = 1; i < players; i++) {
+            PlayerManager.addGuestPlayer("hoodie", "sim" + i);
+        }
+
+        // rooms made for the real game may not have enough spawnpoints, so add them as the room loads.
+        // a replay asks for no extra mobs, so it only gets an "enter" if the room has none
+        Game.world().onLoaded(this::addSpawnpoints);
+    }
+
+    private boolean run() {
+        FixedStepDriver driver = new FixedStepDriver(tickRate);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        boolean passed = true;
+
+        System.out.printf("%8s %8s %10s %9s %9s %9s %9s %12s %12s%n", "mobs", "players", "ticks/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "alloc B/tick", "own B/tick");
+
+        for (int mobs : mobCounts) {
+            pendingMobs = mobs;
+            clearRoom();
+            GameManager.spawn(map, "enter", 0);
+
+            for (int i = 0; i < warmup; i++) {
+                driver.step();
+            }
+
+            long[] times = new long[ticks];
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long ownAllocated = AllocationMeter.getOwnBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ticks; i++) {
+                times[i] = driver.step();
+            }
+            long total = System.nanoTime() - start;
+            long allocPerTick = (threads.getThreadAllocatedBytes(thread) - allocated) / ticks;
+            long own = AllocationMeter.getOwnBytes() - ownAllocated;
+
+            Arrays.sort(times);
+            System.out.printf("%8d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %12d %12s%n", mobs, PlayerManager.size(),
+                    ticks / (total / 1e9),
+                    percentile(times, 0.5), percentile(times, 0.99), percentile(times, 0.999),
+                    times[times.length - 1] / 1e6, allocPerTick,
+                    AllocationMeter.isEnabled() ? String.format("%.1f", own / (double) ticks) : "-");
+
+            if (maxAlloc >= 0 && allocPerTick > maxAlloc) {
+                System.err.println("ERROR: " + mobs + " mobs allocated " + allocPerTick + " bytes per tick, budget is " + maxAlloc);
+                passed = false;
+            }
+            // compared over the whole run, a few bytes every other tick still count
+            if (maxOwnAlloc >= 0 && own > maxOwnAlloc * ticks) {
+                System.err.println("ERROR: with " + mobs + " mobs our tick code allocated " + own + " bytes in " + ticks
+                        + " ticks, budget is " + maxOwnAlloc + " per tick");
+                passed = false;
+            }
+        }
+
+        if (profile != null) {
+            TickProfiler.dump(Path.of(profile));
+        }
+        return passed;
+    }
+
+    // plays the recording back from the start of the session to its last tick
+    private boolean runReplay() {
+        FixedStepDriver driver = new FixedStepDriver(tickRate);
+        // which mobs think depends on the viewport, which a recording doesn't have. the recording game ran without
+        MobSystem.setLodEnabled(false);
+        GameManager.enterWorld(map);
+        replay.takeControl();
+
+        long[] times = new long[1024];
+        int tick = 0;
+        long start = System.nanoTime();
+        while (replay.apply(tick)) {
+            if (tick == times.length) {
+                times = Arrays.copyOf(times, tick * 2);
+            }
+            driver.setStepMillis(replay.getDeltaTime());
+            times[tick++] = driver.step();
+        }
+        long total = System.nanoTime() - start;
+        if (tick == 0) {
+            System.err.println("ERROR: input recording has no ticks.");
+            return false;
+        }
+
+        times = Arrays.copyOf(times, tick);
+        Arrays.sort(times);
+        System.out.printf("%8s %8s %8s %10s %9s %9s %9s%n", "map", "players", "ticks", "ticks/s", "p50 ms", "p99 ms", "max ms");
+        System.out.printf("%8s %8d %8d %10.1f %9.3f %9.3f %9.3f%n", map, PlayerManager.size(), tick,
+                tick / (total / 1e9), percentile(times, 0.5), percentile(times, 0.99), times[times.length - 1] / 1e6);
+
+        if (profile != null) {
+            TickProfiler.dump(Path.of(profile));
+        }
+        return true;
+    }
+
+    // removes the mobs and spawnpoints of the previous run so counts don't add up when the same room is reloaded
+    private void clearRoom() {
+        Environment e = Game.world().environment();
+        if (e == null) {
+            return;
+        }
+        MobPool.release(e);
+        for (Spawnpoint spawnpoint : new ArrayList<>(e.getSpawnpoints())) {
+            if ("sim".equals(spawnpoint.getProperties().getStringValue("source"))) {
+                e.remove(spawnpoint);
+            }
+        }
+    }
+
+    private void addSpawnpoints(Environment e) {
+        double width = e.getMap().getSizeInPixels().getWidth();
+        double height = e.getMap().getSizeInPixels().getHeight();
+
+        if (e.getSpawnpoint("enter") == null) {
+            Spawnpoint enter = new Spawnpoint(width / 2.0, height / 2.0);
+            enter.setName("enter");
+            enter.getProperties().setValue("source", "sim");
+            e.add(enter);
+        }
+
+        Random random = new Random(seed + pendingMobs);
+        for (int i = 0; i < pendingMobs; i++) {
+            Spawnpoint spawnpoint = new Spawnpoint(random.nextDouble() * width, random.nextDouble() * height);
+            spawnpoint.setName("eye");
+            spawnpoint.addTag("mob");
+            spawnpoint.getProperties().setValue("source", "sim");
+            e.add(spawnpoint);
+        }
+        pendingMobs = 0;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,160 @@
+package com.gradle.game.headless;
+
+import com.gradle.game.GameManager;
+import com.gradle.game.GameTick;
+import com.gradle.game.gui.screens.IngameScreen;
+import com.gradle.game.net.NetServer;
+import com.gradle.game.net.NetStats;
+import com.gradle.game.net.ServerLink;
+import com.gradle.game.profiling.LatencyHistogram;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.resources.Resources;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+// Hosts a headless game over loopback and lets simulated clients play in it, to see what the network code
+// costs: server tick time, bandwidth per client, snapshot sizes and round trip times.
+// The bots run on their own thread and speak the real protocol through ServerLink, they just have no world:
+// they decode every snapshot and send random axes every tick.
+//
+// usage: NetStressTest [--map=mansion] [--clients=8] [--seconds=10] [--tickrate=60] [--port=27961] [--seed=42]
+// or:    gradlew netStress --args="--clients=16"
+//
+// Fails with exit code 1 if a bot lost its connection or couldn't decode snapshots.
+public class NetStressTest {
+
+    private String map = "mansion";
+    private int clients = 8;
+    private int seconds = 10;
+    private int tickRate = 60;
+    private int port = 27961;
+    private long seed = 42;
+
+    private volatile boolean running = true;
+
+    public static void main(String[] args) {
+        NetStressTest test = new NetStressTest();
+        test.parse(args);
+        System.exit(test.run() ? 0 : 1);
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                System.out.println("WARNING: ignoring argument " + arg);
+                continue;
+            }
+            switch (pair[0]) {
+                case "--map" -> map = pair[1];
+                case "--clients" -> clients = Integer.parseInt(pair[1]);
+                case "--seconds" -> seconds = Integer.parseInt(pair[1]);
+                case "--tickrate" -> tickRate = Integer.parseInt(pair[1]);
+                case "--port" -> port = Integer.parseInt(pair[1]);
+                case "--seed" -> seed = Long.parseLong(pair[1]);
+                default -> System.out.println("WARNING: unknown argument " + pair[0]);
+            }
+        }
+    }
+
+    private boolean run() {
+        // same setup as HeadlessSimulation
+        Game.init(Game.COMMANDLINE_ARG_NOGUI);
+        GameTick.init();
+        Resources.load("game.litidata");
+        Game.screens().add(new IngameScreen());
+        GameManager.init();
+        GameManager.setWorldSeed(seed);
+        GameManager.enterWorld(map);
+        NetServer.start(port);
+        if (!NetServer.isRunning()) {
+            return false;
+        }
+
+        ServerLink[] bots = new ServerLink[clients];
+        Thread botThread = new Thread(() -> runBots(bots), "net-stress-bots");
+        botThread.setDaemon(true);
+        botThread.start();
+
+        // the server ticks in real time, the round trips wouldn't mean anything otherwise
+        FixedStepDriver driver = new FixedStepDriver(tickRate);
+        LatencyHistogram tickTimes = new LatencyHistogram();
+        long stepNanos = 1_000_000_000L / tickRate;
+        long next = System.nanoTime();
+        long end = next + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            tickTimes.record(driver.step());
+            if (driver.getTicks() % tickRate == 0) {
+                System.out.printf("%4ds  %d clients  %s%n", driver.getTicks() / tickRate, NetServer.getClientCount(), NetServer.getStats());
+            }
+            next += stepNanos;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+        running = false;
+        try {
+            botThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        NetStats total = NetServer.getStats();
+        System.out.println();
+        System.out.printf("server tick   p50 %.3f ms  p99 %.3f ms  max %.3f ms%n",
+                tickTimes.getValueAtPercentile(50) / 1e6, tickTimes.getValueAtPercentile(99) / 1e6, tickTimes.getMax() / 1e6);
+        System.out.printf("server total  %d bytes out, %d bytes in, %s%n", total.getBytesSent(), total.getBytesReceived(), total);
+
+        boolean passed = true;
+        System.out.printf("%6s %12s %10s %10s %8s%n", "client", "bytes in", "decoded", "dropped", "status");
+        for (int i = 0; i < bots.length; i++) {
+            ServerLink bot = bots[i];
+            if (bot == null) {
+                System.out.printf("%6d %12s %10s %10s %8s%n", i, "-", "-", "-", "failed");
+                passed = false;
+                continue;
+            }
+            boolean ok = !bot.isClosed() && bot.getSnapshotsDecoded() > 0;
+            System.out.printf("%6d %12d %10d %10d %8s%n", i, bot.getStats().getBytesReceived(),
+                    bot.getSnapshotsDecoded(), bot.getSnapshotsDropped(), ok ? "ok" : "broken");
+            passed &= ok;
+        }
+        NetServer.stop();
+        return passed;
+    }
+
+    // every bot is polled once a tick. the array is only read by the main thread after the bots stopped
+    private void runBots(ServerLink[] bots) {
+        Random random = new Random(seed);
+        for (int i = 0; i < bots.length; i++) {
+            try {
+                bots[i] = ServerLink.connect("localhost", port, "bot" + i);
+            } catch (IOException e) {
+                System.err.println("ERROR: bot " + i + " cannot connect: " + e.getMessage());
+            }
+        }
+
+        float[] axisX = new float[bots.length];
+        float[] axisY = new float[bots.length];
+        long stepNanos = 1_000_000_000L / tickRate;
+        long next = System.nanoTime();
+        while (running) {
+            for (int i = 0; i < bots.length; i++) {
+                ServerLink bot = bots[i];
+                if (bot == null || bot.isClosed()) {
+                    continue;
+                }
+                bot.poll();
+                // change direction now and then, like someone walking around
+                if (random.nextInt(30) == 0) {
+                    axisX[i] = random.nextInt(3) - 1;
+                    axisY[i] = random.nextInt(3) - 1;
+                }
+                bot.sendInput(axisX[i], axisY[i]);
+                bot.flush();
+            }
+            next += stepNanos;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.gradle.game.input;
+
+import de.gurkenlabs.litiengine.IUpdateable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Hands input from the keyboard and gamepad threads over to the game loop.
+// Input listeners post what should happen instead of doing it, and GameTick runs everything posted before the
+// rest of our systems in the next tick, so windows, menus and players are only ever changed on the loop thread.
+//
+// Bounded ring buffer, many producers and one consumer, no locks. Each cell has a sequence number that
+// tells producers and the consumer whose turn it is (Vyukov's bounded queue). When the ring is full new
+// input is dropped, at 60 ticks a second nobody presses that many buttons.
+public final class InputQueue implements IUpdateable {
+
+    private static final int CAPACITY = 256; // must be a power of two
+    private static final int MASK = CAPACITY - 1;
+
+    private static final InputQueue instance = new InputQueue();
+
+    private static final AtomicReferenceArray<Runnable> buffer = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLongArray sequence = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong(); // next cell to write, shared by producers
+    private static long head = 0; // next cell to read, only touched by the loop thread
+
+    private static final AtomicLong dropped = new AtomicLong();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    private InputQueue() {
+    }
+
+    // GameTick drains it before updating the rest of our systems
+    public static InputQueue instance() {
+        return instance;
+    }
+
+    // callable from any thread. returns false if the queue was full and the action was dropped
+    public static boolean post(Runnable action) {
+        long position = tail.get();
+        while (true) {
+            int cell = (int) (position & MASK);
+            long difference = sequence.get(cell) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer.set(cell, action);
+                    sequence.set(cell, position + 1); // publishes the action to the consumer
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                System.out.println("WARNING: input queue full, input dropped.");
+                return false;
+            } else {
+                position = tail.get(); // another producer took the cell
+            }
+        }
+    }
+
+    // runs everything posted so far. loop thread only
+    public static int drain() {
+        int ran = 0;
+        while (true) {
+            int cell = (int) (head & MASK);
+            if (sequence.get(cell) != head + 1) {
+                return ran; // empty, or the producer of the next cell isn't done writing yet
+            }
+            Runnable action = buffer.get(cell);
+            buffer.set(cell, null);
+            sequence.set(cell, head + CAPACITY); // cell is free for the producer one lap ahead
+            head++;
+
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // one broken action shouldn't take the rest of the tick's input with it
+                System.err.println("ERROR: input action failed: " + e);
+                e.printStackTrace();
+            }
+            ran++;
+        }
+    }
+
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void update() {
+        InputRecorder.nextTick(); // the actions drained now belong to the new tick
+        drain();
+    }
+}
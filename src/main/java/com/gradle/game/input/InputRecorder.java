@@ -0,0 +1,227 @@
+package com.gradle.game.input;
+
+import de.gurkenlabs.litiengine.Game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Writes everything the players did to a compact binary log, tick by tick, so a session can be played back in
+// the headless harness (HeadlessSimulation --replay=file). Together with the world seed that reproduces it.
+// Start it with -Dgame.record=file, or call start().
+//
+// All calls come from the loop thread: actions are recorded as the InputQueue drains, movement as the
+// controllers update. Nothing happens while not recording.
+// Events are numbered by the loop's own tick count, which is the same for everything that updates in a tick
+// whatever order the loop picks. The delta time of every tick is recorded too, the engine measures it from the
+// wall clock and moves everything by it.
+// What a tick recorded is flushed when the next one starts, and a shutdown hook flushes the rest, so a crash
+// or a kill loses at most the tick it happened in. That's the part a replay of a crash needs.
+//
+// Format, big endian:
+//   header: int MAGIC, byte VERSION, long world seed, UTF map name, byte players at the start
+//   tick 0 is the first tick after the recording started, GameManager.enterWorld() starts it right after loading
+//   the room
+//   events: varint ticks since the last event, byte type, then
+//     AXES   byte player, float x, float y   (only written when a player's axes change)
+//     ACTION byte player, byte action       (see PlayerActions)
+//     JOIN   byte player
+//     LEAVE  byte player
+//     DELTA  varint milliseconds           (the tick's delta time, only written when it changes)
+//     END    nothing, last tick of the recording
+public final class InputRecorder {
+    private InputRecorder() {
+    }
+
+    public static final int MAGIC = 0x47524543; // "GREC"
+    public static final byte VERSION = 2;
+
+    public static final byte END = 0;
+    public static final byte AXES = 1;
+    public static final byte ACTION = 2;
+    public static final byte JOIN = 3;
+    public static final byte LEAVE = 4;
+    public static final byte DELTA = 5;
+
+    private static volatile DataOutputStream out = null; // volatile for the shutdown hook
+    private static long startTick = 0; // Game.loop().getTicks() when the recording started
+    private static long lastEventTick = 0;
+    private static long lastDelta = -1;
+    private static boolean unflushed = false; // something was written since the last flush
+    private static boolean hooked = false;
+
+    // last axes written per player id, NaN for never
+    private static float[] lastX = new float[0];
+    private static float[] lastY = new float[0];
+
+    public static boolean isRecording() {
+        return out != null;
+    }
+
+    public static void start(Path file, long worldSeed, String map, int players) {
+        stop();
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(worldSeed);
+            out.writeUTF(map);
+            out.writeByte(players);
+        } catch (IOException e) {
+            System.err.println("ERROR: cannot record input to " + file + ": " + e.getMessage());
+            out = null;
+            return;
+        }
+        startTick = Game.loop().getTicks();
+        lastEventTick = 0;
+        lastDelta = -1;
+        unflushed = false;
+        if (!hooked) {
+            hooked = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(InputRecorder::flushOnExit, "input-recorder-flush"));
+        }
+        Arrays.fill(lastX, Float.NaN);
+        Arrays.fill(lastY, Float.NaN);
+        System.out.println("Recording input to " + file.toAbsolutePath());
+    }
+
+    public static void stop() {
+        if (out == null) {
+            return;
+        }
+        try {
+            event(END);
+            out.close();
+        } catch (IOException e) {
+            System.err.println("ERROR: failed to finish input recording: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    // called by the InputQueue once every tick, before it drains
+    static void nextTick() {
+        if (out == null) {
+            return;
+        }
+        if (unflushed) {
+            unflushed = false;
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failed(e);
+                return;
+            }
+        }
+
+        long delta = Game.loop().getDeltaTime();
+        if (delta != lastDelta) {
+            lastDelta = delta;
+            try {
+                event(DELTA);
+                writeVarLong(out, delta);
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+    }
+
+    // the game may be going down without GameListener.terminating (crash, kill), so stop() isn't certain to run.
+    // only flushes, the loop thread could still be writing
+    private static void flushOnExit() {
+        DataOutputStream stream = out;
+        if (stream != null) {
+            try {
+                stream.flush();
+            } catch (IOException ignored) {
+                // going down anyway
+            }
+        }
+    }
+
+    public static void axes(int player, float x, float y) {
+        if (out == null) {
+            return;
+        }
+        if (player >= lastX.length) {
+            int old = lastX.length;
+            lastX = Arrays.copyOf(lastX, player + 4);
+            lastY = Arrays.copyOf(lastY, player + 4);
+            Arrays.fill(lastX, old, lastX.length, Float.NaN);
+            Arrays.fill(lastY, old, lastY.length, Float.NaN);
+        }
+        if (lastX[player] == x && lastY[player] == y) {
+            return;
+        }
+        lastX[player] = x;
+        lastY[player] = y;
+        try {
+            event(AXES);
+            out.writeByte(player);
+            out.writeFloat(x);
+            out.writeFloat(y);
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    public static void action(int player, byte action) {
+        playerEvent(ACTION, player);
+        if (out != null) {
+            try {
+                out.writeByte(action);
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+    }
+
+    public static void join(int player) {
+        playerEvent(JOIN, player);
+    }
+
+    public static void leave(int player) {
+        playerEvent(LEAVE, player);
+    }
+
+    private static void playerEvent(byte type, int player) {
+        if (out == null) {
+            return;
+        }
+        try {
+            event(type);
+            out.writeByte(player);
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private static void event(byte type) throws IOException {
+        long tick = Game.loop().getTicks() - startTick - 1;
+        writeVarLong(out, tick - lastEventTick);
+        lastEventTick = tick;
+        out.writeByte(type);
+        unflushed = true;
+    }
+
+    private static void failed(IOException e) {
+        System.err.println("ERROR: input recording stopped: " + e.getMessage());
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // already broken
+        }
+        out = null;
+    }
+
+    // 7 bits a byte, most ticks between events fit in one
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,168 @@
+package com.gradle.game.input;
+
+import com.gradle.game.entities.player.Player;
+import com.gradle.game.entities.player.PlayerActions;
+import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.entities.player.ReplayMovementController;
+import de.gurkenlabs.litiengine.physics.IMovementController;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Plays a log written by InputRecorder back into the game. Meant for the headless harness, where no real
+// keyboard or gamepad is attached: every player gets a ReplayMovementController, and actions, joins and leaves
+// are posted to the InputQueue, so they run in the drain like the input that was recorded did.
+//
+// Call apply(t), step the loop once by getDeltaTime(), for t = 0, 1, 2, ... until apply() returns false.
+public class InputReplay {
+
+    private final DataInputStream in;
+    private final long worldSeed;
+    private final String map;
+    private final int players;
+
+    private long nextTick = 0;
+    private byte nextType;
+    private long deltaTime = 0;
+    private boolean ended = false;
+
+    private InputReplay(DataInputStream in) throws IOException {
+        this.in = in;
+        if (in.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("not an input recording");
+        }
+        byte version = in.readByte();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("input recording version " + version + " isn't supported, expected " + InputRecorder.VERSION);
+        }
+        this.worldSeed = in.readLong();
+        this.map = in.readUTF();
+        this.players = in.readByte();
+        readEventHead();
+    }
+
+    public static InputReplay open(Path file) throws IOException {
+        return new InputReplay(new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16)));
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public String getMap() {
+        return map;
+    }
+
+    // players in the game when the recording started
+    public int getPlayers() {
+        return players;
+    }
+
+    // delta time of the tick applied last, in milliseconds
+    public long getDeltaTime() {
+        return deltaTime;
+    }
+
+    // swaps the movement controller of every player for a replay one. call once the players are in the room
+    public void takeControl() {
+        for (Player player : PlayerManager.getSnapshot()) {
+            player.setController(IMovementController.class, new ReplayMovementController(player));
+        }
+    }
+
+    // applies the events of the given tick. returns false once the recording is over
+    public boolean apply(long tick) {
+        try {
+            while (!ended && nextTick <= tick) {
+                applyEvent();
+                readEventHead();
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: input recording is broken at tick " + nextTick + ": " + e.getMessage());
+            ended = true;
+        }
+        if (ended) {
+            close();
+        }
+        return !ended;
+    }
+
+    private void applyEvent() throws IOException {
+        switch (nextType) {
+            case InputRecorder.END -> ended = true;
+            case InputRecorder.AXES -> {
+                Player player = PlayerManager.get(in.readByte());
+                float x = in.readFloat();
+                float y = in.readFloat();
+                if (player != null && player.getController(ReplayMovementController.class) != null) {
+                    player.getController(ReplayMovementController.class).setAxes(x, y);
+                }
+            }
+            case InputRecorder.ACTION -> {
+                int id = in.readByte();
+                byte action = in.readByte();
+                InputQueue.post(() -> {
+                    Player player = PlayerManager.get(id);
+                    if (player != null) {
+                        PlayerActions.dispatch(player, action);
+                    }
+                });
+            }
+            case InputRecorder.JOIN -> {
+                int id = in.readByte();
+                InputQueue.post(() -> {
+                    Player player = PlayerManager.addGuestPlayer("hoodie", "replay" + id);
+                    if (player.getId() != id) {
+                        System.out.println("WARNING: replayed player joined as " + player.getId() + ", recorded as " + id + ".");
+                    }
+                    player.setController(IMovementController.class, new ReplayMovementController(player));
+                });
+            }
+            case InputRecorder.LEAVE -> {
+                // same as losing the gamepad in co-op, the player stays but can't move
+                int id = in.readByte();
+                InputQueue.post(() -> {
+                    Player player = PlayerManager.get(id);
+                    if (player != null) {
+                        player.removeController(IMovementController.class);
+                    }
+                });
+            }
+            case InputRecorder.DELTA -> deltaTime = readVarLong();
+            default -> throw new IOException("unknown event type " + nextType);
+        }
+    }
+
+    private void readEventHead() throws IOException {
+        try {
+            nextTick += readVarLong();
+            nextType = in.readByte();
+        } catch (EOFException e) {
+            // recordings cut off by a crash have no END, which is what they're most useful for
+            ended = true;
+        }
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private void close() {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // nothing left to read anyway
+        }
+    }
+}
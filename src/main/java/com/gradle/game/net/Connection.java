@@ -0,0 +1,160 @@
+package com.gradle.game.net;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// One non-blocking socket and its buffers, with messages framed as in NetProtocol.
+// Messages are written straight into the outgoing buffer and go out on the next flush(); a message that
+// doesn't fit because the other side isn't reading is refused instead of buffered without end.
+// Not thread safe, one thread polls it.
+public class Connection {
+
+    public interface MessageHandler {
+        // body is positioned after the type and limited to the message. throwing closes the connection
+        void message(Connection connection, byte type, ByteBuffer body) throws IOException;
+    }
+
+    private static final int INITIAL_BUFFER = 1 << 16;
+
+    private final SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+    private ByteBuffer out = ByteBuffer.allocateDirect(INITIAL_BUFFER * 4);
+    private final NetStats stats = new NetStats();
+
+    private int messageStart = -1;
+    private boolean closed = false;
+
+    public Connection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true); // snapshots are small and late ones are worthless
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    public NetStats getStats() {
+        return stats;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // starts a message of at most maxBody bytes and returns the buffer to write the body into,
+    // or null if that much doesn't fit until the other side has read what is waiting
+    public ByteBuffer begin(byte type, int maxBody) {
+        int needed = 5 + maxBody;
+        if (out.remaining() < needed) {
+            if (out.position() != 0 || needed > NetProtocol.MAX_MESSAGE + 4) {
+                return null;
+            }
+            out = ByteBuffer.allocateDirect(needed);
+        }
+        messageStart = out.position();
+        out.putInt(0); // length, filled in by end()
+        out.put(type);
+        return out;
+    }
+
+    public void end() {
+        out.putInt(messageStart, out.position() - messageStart - 4);
+        messageStart = -1;
+        stats.messageSent();
+    }
+
+    // writes as much of what is waiting as the socket takes
+    public void flush() {
+        if (closed || out.position() == 0) {
+            return;
+        }
+        out.flip();
+        try {
+            stats.sent(channel.write(out));
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        out.compact();
+    }
+
+    // reads what has arrived and hands every complete message to the handler.
+    // returns false once the connection is closed
+    public boolean read(MessageHandler handler) {
+        if (closed) {
+            return false;
+        }
+        int read;
+        try {
+            read = channel.read(in);
+        } catch (IOException e) {
+            close();
+            return false;
+        }
+        if (read < 0) {
+            close();
+            return false;
+        }
+        stats.received(read);
+
+        in.flip();
+        try {
+            while (in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (length < 1 || length > NetProtocol.MAX_MESSAGE) {
+                    System.err.println("ERROR: message of " + length + " bytes from " + describe() + ", closing.");
+                    close();
+                    return false;
+                }
+                if (in.remaining() < 4 + length) {
+                    if (in.capacity() < 4 + length) {
+                        ByteBuffer larger = ByteBuffer.allocateDirect(4 + length);
+                        larger.put(in);
+                        in = larger;
+                        return true; // already in fill mode
+                    }
+                    break;
+                }
+
+                int end = in.position() + 4 + length;
+                int limit = in.limit();
+                in.position(in.position() + 4);
+                byte type = in.get();
+                in.limit(end);
+                stats.messageReceived();
+                handler.message(this, type, in);
+                in.limit(limit);
+                in.position(end);
+            }
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            System.err.println("ERROR: broken message from " + describe() + ": " + e + ", closing.");
+            close();
+            return false;
+        }
+        in.compact();
+        return true;
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // closing anyway
+        }
+    }
+
+    public String describe() {
+        try {
+            return String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            return "closed connection";
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.gradle.game.net;
+
+import com.gradle.game.GameManager;
+import com.gradle.game.entities.mobs.Mob;
+import com.gradle.game.entities.mobs.MobSystem;
+import com.gradle.game.entities.player.Player;
+import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.entities.player.ReplayMovementController;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.physics.IMovementController;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Plays co-op in a game hosted by a NetServer. Start it with -Dgame.connect=host:port, GameManager.startGame()
+// then joins instead of entering the world on its own.
+//
+// The server decides where everything is. This game stops simulating mobs, moves the other players and the
+// mobs to where the snapshots say, and sends the server what the local player's keys or stick do.
+// Everything but the local player is shown a little in the past, interpolated between the two snapshots
+// around that time, so it moves smoothly although snapshots only come every few ticks. The local player
+// moves right away and is only put back where the server has it if the two drift too far apart.
+public final class NetClient implements IUpdateable {
+
+    private static final NetClient instance = new NetClient();
+
+    // how far behind the latest snapshot other entities are shown, in snapshots. one to interpolate
+    // towards and one spare for a late one
+    private static final double INTERPOLATION_SNAPSHOTS = 2;
+    private static final double CORRECTION_DISTANCE = 24; // pixels
+
+    private static ServerLink link = null;
+    private static int roomVersion = 0;
+    private static long ticks = 0;
+    private static float axisX = 0;
+    private static float axisY = 0;
+
+    // players of the other clients and the host by their id on the server, null if we haven't seen them
+    private static Player[] remotePlayers = new Player[8];
+    // mobs of the room by net id
+    private static Mob[] mobs = new Mob[64];
+
+    private NetClient() {
+    }
+
+    // GameTick updates it every tick, it does nothing while not connected
+    public static NetClient instance() {
+        return instance;
+    }
+
+    public static boolean isConnected() {
+        return link != null;
+    }
+
+    // address is host:port, or just host for NetProtocol.DEFAULT_PORT. returns false if the server can't be reached
+    public static boolean connect(String address) {
+        disconnect();
+        int colon = address.lastIndexOf(':');
+        String host = colon < 0 ? address : address.substring(0, colon);
+        int port = colon < 0 ? NetProtocol.DEFAULT_PORT : Integer.parseInt(address.substring(colon + 1));
+        try {
+            link = ServerLink.connect(host, port, PlayerManager.getCurrent().getCharacterName());
+        } catch (IOException e) {
+            System.err.println("ERROR: cannot connect to " + address + ": " + e.getMessage());
+            return false;
+        }
+        roomVersion = 0;
+        System.out.println("Connected to " + address + ", waiting for the server.");
+        return true;
+    }
+
+    public static void disconnect() {
+        if (link == null) {
+            return;
+        }
+        link.close();
+        link = null;
+        for (int i = 0; i < remotePlayers.length; i++) {
+            if (remotePlayers[i] != null) {
+                PlayerManager.removePlayer(remotePlayers[i].getId());
+                remotePlayers[i] = null;
+            }
+        }
+        MobSystem.setSimulated(true);
+    }
+
+    public static NetStats getStats() {
+        return link == null ? null : link.getStats();
+    }
+
+    // the local player's controller reports its axes every tick, they go out with the next input
+    public static void axes(int player, float x, float y) {
+        if (link != null && player == PlayerManager.getCurrent().getId()) {
+            axisX = x;
+            axisY = y;
+        }
+    }
+
+    @Override
+    public void update() {
+        if (link == null) {
+            return;
+        }
+        if (!link.poll()) {
+            System.err.println("ERROR: lost the connection to the server.");
+            disconnect();
+            return;
+        }
+        if (!link.isWelcomed()) {
+            link.flush();
+            return;
+        }
+        if (link.getRoomVersion() != roomVersion) {
+            enterRoom();
+        }
+
+        link.sendInput(axisX, axisY);
+        link.flush();
+        applySnapshots();
+
+        if (++ticks % Math.max(1, link.getTickRate()) == 0) {
+            link.getStats().sample();
+        }
+    }
+
+    private static void enterRoom() {
+        if (roomVersion == 0) {
+            // first room: same seed as the server, and the server moves the mobs from now on
+            GameManager.setWorldSeed(link.getWorldSeed());
+            MobSystem.setSimulated(false);
+            GameManager.enterWorld(link.getMap());
+        } else if (Game.world().environment() == null) {
+            GameManager.spawn(link.getMap(), "enter");
+        } else if (!link.getMap().equals(GameManager.getRoomName())) {
+            // remove players before unloading the environment, same as DoorWay
+            Game.world().environment().removeAll(PlayerManager.getAll());
+            GameManager.spawn(link.getMap(), "enter");
+        }
+        roomVersion = link.getRoomVersion();
+
+        // spawning the room numbered its mobs the way the server did
+        Arrays.fill(mobs, null);
+        for (int i = 0; i < MobSystem.size(); i++) {
+            Mob mob = MobSystem.get(i);
+            int id = mob.getNetId();
+            if (id == Mob.NO_NET_ID) {
+                continue;
+            }
+            if (id >= mobs.length) {
+                mobs = Arrays.copyOf(mobs, Math.max(id + 1, mobs.length * 2));
+            }
+            mobs[id] = mob;
+        }
+    }
+
+    private static void applySnapshots() {
+        SnapshotHistory history = link.getHistory();
+        Snapshot latest = history.getLatest();
+        if (latest == null) {
+            return;
+        }
+
+        // server tick now, going by how long ago the latest snapshot arrived, minus the interpolation delay
+        double tickNanos = 1e9 / link.getTickRate();
+        double renderTick = latest.getTick() + (System.nanoTime() - link.getLastReceived()) / tickNanos
+                - INTERPOLATION_SNAPSHOTS * link.getSnapshotInterval();
+        Snapshot from = history.getAtOrBefore((int) Math.floor(renderTick));
+        if (from == null) {
+            from = history.getAfter((int) Math.floor(renderTick)); // not enough history yet
+        }
+        if (from == null) {
+            return;
+        }
+        Snapshot to = history.getAfter(from.getTick());
+        double t = to == null ? 0 : Math.max(0, Math.min(1, (renderTick - from.getTick()) / (to.getTick() - from.getTick())));
+
+        Snapshot shown = to != null ? to : from;
+        for (int i = 0; i < shown.size(); i++) {
+            int key = shown.getKey(i);
+            int before = from.indexOf(key);
+            // entities that just appeared are shown where they are
+            double x = NetProtocol.position(shown.getX(i));
+            double y = NetProtocol.position(shown.getY(i));
+            if (before >= 0) {
+                x += (NetProtocol.position(from.getX(before)) - x) * (1 - t);
+                y += (NetProtocol.position(from.getY(before)) - y) * (1 - t);
+            }
+            byte facing = t < 0.5 && before >= 0 ? from.getFacing(before) : shown.getFacing(i);
+
+            int id = Snapshot.idOf(key);
+            if (Snapshot.isPlayer(key)) {
+                if (id != link.getPlayerId()) {
+                    place(remotePlayer(id), x, y, facing);
+                }
+            } else if (id < mobs.length && mobs[id] != null) {
+                place(mobs[id], x, y, facing);
+            }
+        }
+
+        correctLocalPlayer(latest);
+        removeLeftPlayers(latest);
+    }
+
+    private static void place(Creature creature, double x, double y, byte facing) {
+        if (creature.getX() != x || creature.getY() != y) {
+            creature.setLocation(x, y);
+        }
+        creature.setFacingDirection(NetProtocol.facing(facing));
+    }
+
+    // the local player walks on its own; only if the server disagrees by a lot, it goes where the server says
+    private static void correctLocalPlayer(Snapshot latest) {
+        int index = latest.indexOf(Snapshot.playerKey(link.getPlayerId()));
+        if (index < 0) {
+            return;
+        }
+        Player player = PlayerManager.getCurrent();
+        double x = NetProtocol.position(latest.getX(index));
+        double y = NetProtocol.position(latest.getY(index));
+        double dx = player.getX() - x;
+        double dy = player.getY() - y;
+        if (dx * dx + dy * dy > CORRECTION_DISTANCE * CORRECTION_DISTANCE) {
+            player.setLocation(x, y);
+        }
+    }
+
+    private static Player remotePlayer(int id) {
+        if (id >= remotePlayers.length) {
+            remotePlayers = Arrays.copyOf(remotePlayers, Math.max(id + 1, remotePlayers.length * 2));
+        }
+        if (remotePlayers[id] == null) {
+            Player player = PlayerManager.addGuestPlayer("hoodie", "remote" + id);
+            // nothing local moves it, the axes stay at zero
+            player.setController(IMovementController.class, new ReplayMovementController(player));
+            remotePlayers[id] = player;
+        }
+        return remotePlayers[id];
+    }
+
+    private static void removeLeftPlayers(Snapshot latest) {
+        for (int id = 0; id < remotePlayers.length; id++) {
+            if (remotePlayers[id] != null && latest.indexOf(Snapshot.playerKey(id)) < 0) {
+                PlayerManager.removePlayer(remotePlayers[id].getId());
+                remotePlayers[id] = null;
+            }
+        }
+    }
+}
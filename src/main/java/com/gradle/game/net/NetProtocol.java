@@ -0,0 +1,108 @@
+package com.gradle.game.net;
+
+import de.gurkenlabs.litiengine.Direction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Wire format shared by NetServer, NetClient and the stress test bots.
+// Every message is an int length, then a byte type, then the body. Big endian, like InputRecorder.
+//
+//   HELLO     client -> server  int MAGIC, byte VERSION, UTF name
+//   WELCOME   server -> client  byte player id, long world seed, UTF map, varint tick rate, varint snapshot interval
+//   ROOM      server -> client  UTF map. every key in later snapshots refers to this room, old baselines are gone
+//   INPUT     client -> server  varint last snapshot tick received, long its server time, varint nanos held,
+//                               float axis x, float axis y
+//   SNAPSHOT  server -> client  long server time, then a SnapshotCodec body
+//
+// Everything after WELCOME can be sent at any time and in any amount, nothing waits for an answer.
+public final class NetProtocol {
+    private NetProtocol() {
+    }
+
+    public static final int MAGIC = 0x474E4554; // "GNET"
+    public static final byte VERSION = 2; // 2: tick rate and snapshot interval in WELCOME are varints
+    public static final int DEFAULT_PORT = 27960;
+
+    public static final byte HELLO = 1;
+    public static final byte WELCOME = 2;
+    public static final byte ROOM = 3;
+    public static final byte INPUT = 4;
+    public static final byte SNAPSHOT = 5;
+
+    // larger messages close the connection, a snapshot of 10000 mobs sent in full is well below this
+    public static final int MAX_MESSAGE = 1 << 20;
+
+    // positions travel as fixed point, 1/8 of a pixel is finer than anything drawn at render scale 4
+    public static final float POSITION_SCALE = 8f;
+
+    // same order as MobSystem and FlowField use
+    private static final Direction[] FACINGS = {Direction.DOWN, Direction.RIGHT, Direction.UP, Direction.LEFT};
+
+    public static byte facingOf(Direction direction) {
+        return switch (direction) {
+            case RIGHT -> 1;
+            case UP -> 2;
+            case LEFT -> 3;
+            default -> 0;
+        };
+    }
+
+    public static Direction facing(int index) {
+        return FACINGS[index & 3];
+    }
+
+    public static int quantize(double position) {
+        return Math.round((float) position * POSITION_SCALE);
+    }
+
+    public static float position(int quantized) {
+        return quantized / POSITION_SCALE;
+    }
+
+    // ========================================================================================================================
+    // Buffer helpers. varints are 7 bits a byte like InputRecorder's, signed ones zigzag first so small
+    // negative deltas stay small
+
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    public static void putSignedVarInt(ByteBuffer buffer, int value) {
+        putVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    public static int getSignedVarInt(ByteBuffer buffer) {
+        int value = getVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,322 @@
+package com.gradle.game.net;
+
+import com.gradle.game.GameManager;
+import com.gradle.game.entities.mobs.Mob;
+import com.gradle.game.entities.mobs.MobSystem;
+import com.gradle.game.entities.player.Player;
+import com.gradle.game.entities.player.PlayerManager;
+import com.gradle.game.entities.player.ReplayMovementController;
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.physics.IMovementController;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+// Hosts a co-op game for remote players. The game running the server is the only one that simulates
+// anything: remote players send their axes, the server moves their players like any other and sends
+// everybody snapshots of where players and mobs are.
+// Start it with -Dgame.host=port (GameManager.enterWorld() does), or call start().
+//
+// Everything happens in update() on the loop thread, over a non-blocking Selector, so there are no network
+// threads and remote input lands in the tick like local input does.
+// A snapshot goes out every SNAPSHOT_INTERVAL ticks, coded against the last one each client acknowledged.
+public final class NetServer implements IUpdateable {
+
+    private static final NetServer instance = new NetServer();
+
+    private static final int SNAPSHOT_INTERVAL = Integer.getInteger("game.snapshotInterval", 3);
+
+    private static final class Client {
+        final Connection connection;
+        final Connection.MessageHandler handler;
+        Player player = null;
+        int ackedTick = -1;
+
+        Client(Connection connection) {
+            this.connection = connection;
+            this.handler = (c, type, body) -> handle(this, type, body);
+        }
+    }
+
+    private static Selector selector = null;
+    private static ServerSocketChannel server = null;
+    private static final ArrayList<Client> clients = new ArrayList<>();
+
+    private static final SnapshotHistory history = new SnapshotHistory();
+    private static final SnapshotCodec codec = new SnapshotCodec();
+    private static final NetStats total = new NetStats();
+    private static int tick = 0;
+    private static boolean listening = false;
+
+    private NetServer() {
+    }
+
+    public static boolean isRunning() {
+        return server != null;
+    }
+
+    public static void start(int port) {
+        if (server != null) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            System.err.println("ERROR: cannot host on port " + port + ": " + e.getMessage());
+            stop();
+            return;
+        }
+
+        if (!listening) {
+            Game.world().onLoaded(NetServer::roomLoaded);
+            listening = true;
+        }
+        tick = 0;
+        history.clear();
+        System.out.println("Hosting co-op on port " + port);
+    }
+
+    public static void stop() {
+        for (Client client : clients) {
+            client.connection.close();
+        }
+        clients.clear();
+        try {
+            if (server != null) {
+                server.close();
+            }
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: failed to stop hosting: " + e.getMessage());
+        }
+        server = null;
+        selector = null;
+    }
+
+    // GameTick updates it every tick, it does nothing while not hosting
+    public static NetServer instance() {
+        return instance;
+    }
+
+    public static int getClientCount() {
+        return clients.size();
+    }
+
+    // everything sent and received by all clients, with the rates of their last sample
+    public static NetStats getStats() {
+        total.reset();
+        for (Client client : clients) {
+            total.add(client.connection.getStats());
+        }
+        return total;
+    }
+
+    @Override
+    public void update() {
+        if (server == null) {
+            return;
+        }
+        tick++;
+
+        try {
+            selector.selectNow();
+        } catch (IOException e) {
+            System.err.println("ERROR: hosting failed: " + e.getMessage());
+            stop();
+            return;
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.isReadable()) {
+                Client client = (Client) key.attachment();
+                client.connection.read(client.handler);
+            }
+        }
+
+        if (tick % SNAPSHOT_INTERVAL == 0) {
+            sendSnapshot();
+        }
+
+        boolean sample = tick % Math.max(1, Game.loop().getTickRate()) == 0;
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            client.connection.flush();
+            if (client.connection.isClosed()) {
+                disconnected(i);
+            } else if (sample) {
+                client.connection.getStats().sample();
+            }
+        }
+    }
+
+    private static void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                Client client = new Client(new Connection(channel));
+                channel.register(selector, SelectionKey.OP_READ, client);
+                clients.add(client);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: cannot accept connection: " + e.getMessage());
+        }
+    }
+
+    private static void disconnected(int index) {
+        Client client = clients.remove(index);
+        System.out.println("Client " + client.connection.describe() + " left.");
+        if (client.player != null) {
+            PlayerManager.removePlayer(client.player.getId());
+        }
+    }
+
+    private static void handle(Client client, byte type, ByteBuffer body) throws IOException {
+        switch (type) {
+            case NetProtocol.HELLO -> {
+                if (body.getInt() != NetProtocol.MAGIC) {
+                    throw new IOException("not a client of this game");
+                }
+                byte version = body.get();
+                if (version != NetProtocol.VERSION) {
+                    throw new IOException("protocol version " + version + " isn't supported, expected " + NetProtocol.VERSION);
+                }
+                if (client.player != null) {
+                    throw new IOException("said hello twice");
+                }
+                welcome(client, NetProtocol.getString(body));
+            }
+            case NetProtocol.INPUT -> {
+                if (client.player == null) {
+                    throw new IOException("input before hello");
+                }
+                client.ackedTick = Math.max(client.ackedTick, NetProtocol.getVarInt(body) - 1);
+                long echoed = body.getLong();
+                int held = NetProtocol.getVarInt(body);
+                if (echoed != 0) {
+                    client.connection.getStats().roundTrip(System.nanoTime() - echoed - held);
+                }
+                float x = body.getFloat();
+                float y = body.getFloat();
+                ReplayMovementController movement = client.player.getController(ReplayMovementController.class);
+                if (movement != null) {
+                    movement.setAxes(clampAxis(x), clampAxis(y));
+                }
+            }
+            default -> throw new IOException("unexpected message type " + type);
+        }
+    }
+
+    private static void welcome(Client client, String name) {
+        Player player = PlayerManager.addGuestPlayer("hoodie", characterName(name));
+        // the server's keyboard mustn't move remote players, what they send does
+        player.setController(IMovementController.class, new ReplayMovementController(player));
+        client.player = player;
+        client.ackedTick = -1;
+
+        String map = Game.world().environment() != null ? GameManager.getRoomName() : "";
+        ByteBuffer body = client.connection.begin(NetProtocol.WELCOME, 24 + map.length() * 3);
+        body.put((byte) player.getId());
+        body.putLong(GameManager.getWorldSeed());
+        NetProtocol.putString(body, map);
+        NetProtocol.putVarInt(body, Game.loop().getTickRate());
+        NetProtocol.putVarInt(body, SNAPSHOT_INTERVAL);
+        client.connection.end();
+        System.out.println("Client " + client.connection.describe() + " joined as player " + player.getId() + ".");
+    }
+
+    // names pick the save file, so nothing but letters and digits gets through
+    private static String characterName(String name) {
+        String cleaned = name.replaceAll("[^A-Za-z0-9]", "");
+        if (cleaned.isEmpty()) {
+            return "remote";
+        }
+        return cleaned.length() > 16 ? cleaned.substring(0, 16) : cleaned;
+    }
+
+    private static float clampAxis(float value) {
+        if (Float.isNaN(value)) {
+            return 0;
+        }
+        return Math.max(-1f, Math.min(1f, value));
+    }
+
+    // keys change meaning with the room, so every client starts over with a full snapshot
+    private static void roomLoaded(Environment e) {
+        if (server == null) {
+            return;
+        }
+        history.clear();
+        String map = e.getMap().getName();
+        for (Client client : clients) {
+            client.ackedTick = -1;
+            if (client.player == null) {
+                continue;
+            }
+            ByteBuffer body = client.connection.begin(NetProtocol.ROOM, 2 + map.length() * 3);
+            if (body == null) {
+                client.connection.close(); // can't follow the room change, drop it
+                continue;
+            }
+            NetProtocol.putString(body, map);
+            client.connection.end();
+        }
+    }
+
+    private static void sendSnapshot() {
+        Snapshot snapshot = history.next(tick);
+        for (Player player : PlayerManager.getSnapshot()) {
+            snapshot.add(Snapshot.playerKey(player.getId()), NetProtocol.quantize(player.getX()),
+                    NetProtocol.quantize(player.getY()), NetProtocol.facingOf(player.getFacingDirection()));
+        }
+        for (int i = 0; i < MobSystem.size(); i++) {
+            Mob mob = MobSystem.get(i);
+            if (mob.getNetId() != Mob.NO_NET_ID) {
+                snapshot.add(Snapshot.mobKey(mob.getNetId()), NetProtocol.quantize(mob.getX()),
+                        NetProtocol.quantize(mob.getY()), NetProtocol.facingOf(mob.getFacingDirection()));
+            }
+        }
+        snapshot.sort();
+
+        long now = System.nanoTime();
+        for (Client client : clients) {
+            if (client.player == null) {
+                continue;
+            }
+            // after the history was written, so a baseline as old as the history never comes back
+            Snapshot baseline = history.get(client.ackedTick);
+            int baseSize = baseline == null ? 0 : baseline.size();
+            ByteBuffer body = client.connection.begin(NetProtocol.SNAPSHOT, 8 + 20 + 17 * snapshot.size() + 5 * baseSize);
+            if (body == null) {
+                client.connection.getStats().snapshotSkipped();
+                continue;
+            }
+            body.putLong(now);
+            int start = body.position();
+            codec.encode(snapshot, baseline, body);
+            client.connection.getStats().snapshot(body.position() - start, baseline == null);
+            client.connection.end();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.gradle.game.net;
+
+import com.gradle.game.profiling.LatencyHistogram;
+
+// Bandwidth and latency counters of a connection, or of all of them added up.
+// Only touched from the thread that polls the connection.
+public class NetStats {
+
+    private long bytesSent = 0;
+    private long bytesReceived = 0;
+    private long messagesSent = 0;
+    private long messagesReceived = 0;
+    private long snapshotsSent = 0;
+    private long snapshotBytes = 0;
+    private long fullSnapshots = 0;
+    private long snapshotsSkipped = 0; // not sent because the connection couldn't keep up
+
+    // round trip time in nanoseconds, measured with the server time a client echoes in its input
+    private final LatencyHistogram roundTrip = new LatencyHistogram();
+
+    // for the per second rates
+    private long sampleStart = System.nanoTime();
+    private long sampleSent = 0;
+    private long sampleReceived = 0;
+    private double sentPerSecond = 0;
+    private double receivedPerSecond = 0;
+
+    void sent(int bytes) {
+        bytesSent += bytes;
+    }
+
+    void received(int bytes) {
+        bytesReceived += bytes;
+    }
+
+    void messageSent() {
+        messagesSent++;
+    }
+
+    void messageReceived() {
+        messagesReceived++;
+    }
+
+    void snapshot(int bytes, boolean full) {
+        snapshotsSent++;
+        snapshotBytes += bytes;
+        if (full) {
+            fullSnapshots++;
+        }
+    }
+
+    void snapshotSkipped() {
+        snapshotsSkipped++;
+    }
+
+    void roundTrip(long nanos) {
+        roundTrip.record(nanos);
+    }
+
+    // works out the rates since the last call. call about once a second
+    public void sample() {
+        long now = System.nanoTime();
+        double seconds = (now - sampleStart) / 1e9;
+        if (seconds <= 0) {
+            return;
+        }
+        sentPerSecond = (bytesSent - sampleSent) / seconds;
+        receivedPerSecond = (bytesReceived - sampleReceived) / seconds;
+        sampleStart = now;
+        sampleSent = bytesSent;
+        sampleReceived = bytesReceived;
+    }
+
+    public void add(NetStats other) {
+        bytesSent += other.bytesSent;
+        bytesReceived += other.bytesReceived;
+        messagesSent += other.messagesSent;
+        messagesReceived += other.messagesReceived;
+        snapshotsSent += other.snapshotsSent;
+        snapshotBytes += other.snapshotBytes;
+        fullSnapshots += other.fullSnapshots;
+        snapshotsSkipped += other.snapshotsSkipped;
+        sentPerSecond += other.sentPerSecond;
+        receivedPerSecond += other.receivedPerSecond;
+        roundTrip.add(other.roundTrip);
+    }
+
+    public void reset() {
+        bytesSent = bytesReceived = messagesSent = messagesReceived = 0;
+        snapshotsSent = snapshotBytes = fullSnapshots = snapshotsSkipped = 0;
+        sampleSent = sampleReceived = 0;
+        sentPerSecond = receivedPerSecond = 0;
+        sampleStart = System.nanoTime();
+        roundTrip.reset();
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    public long getSnapshotsSent() {
+        return snapshotsSent;
+    }
+
+    public long getFullSnapshots() {
+        return fullSnapshots;
+    }
+
+    public long getSnapshotsSkipped() {
+        return snapshotsSkipped;
+    }
+
+    public double getAverageSnapshotBytes() {
+        return snapshotsSent == 0 ? 0 : (double) snapshotBytes / snapshotsSent;
+    }
+
+    public double getSentPerSecond() {
+        return sentPerSecond;
+    }
+
+    public double getReceivedPerSecond() {
+        return receivedPerSecond;
+    }
+
+    public LatencyHistogram getRoundTrip() {
+        return roundTrip;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("out %.1f KB/s, in %.1f KB/s, %d snapshots (%d full, %d skipped, %.0f B avg), rtt p50 %.2f ms p99 %.2f ms",
+                sentPerSecond / 1024, receivedPerSecond / 1024, snapshotsSent, fullSnapshots, snapshotsSkipped,
+                getAverageSnapshotBytes(),
+                roundTrip.getValueAtPercentile(50) / 1e6, roundTrip.getValueAtPercentile(99) / 1e6);
+    }
+}
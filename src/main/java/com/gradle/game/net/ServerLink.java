@@ -0,0 +1,171 @@
+package com.gradle.game.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// The client end of a connection to a NetServer: says hello, keeps the snapshots the server sends and
+// answers with input. Knows nothing about the game, so NetClient puts it into the world and the stress
+// test bots just run a few hundred of them without one.
+public class ServerLink implements Connection.MessageHandler {
+
+    private static final int INPUT_SIZE = 5 + 8 + 5 + 4 + 4;
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    private final Connection connection;
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final SnapshotHistory history = new SnapshotHistory();
+
+    private boolean welcomed = false;
+    private int playerId = -1;
+    private long worldSeed = 0;
+    private String map = "";
+    private int tickRate = 60;
+    private int snapshotInterval = 1;
+    private int roomVersion = 0; // goes up with every WELCOME and ROOM
+
+    private long lastServerTime = 0;
+    private long lastReceived = 0;
+    private long snapshotsDecoded = 0;
+    private long snapshotsDropped = 0; // baseline gone or out of order
+
+    private ServerLink(Connection connection) {
+        this.connection = connection;
+    }
+
+    // blocks until connected or CONNECT_TIMEOUT passed, everything after is non-blocking
+    public static ServerLink connect(String host, int port, String name) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        ServerLink link = new ServerLink(new Connection(channel));
+        ByteBuffer body = link.connection.begin(NetProtocol.HELLO, 8 + name.length() * 3);
+        body.putInt(NetProtocol.MAGIC);
+        body.put(NetProtocol.VERSION);
+        NetProtocol.putString(body, name);
+        link.connection.end();
+        link.connection.flush();
+        return link;
+    }
+
+    // reads whatever arrived. returns false once the server is gone
+    public boolean poll() {
+        return connection.read(this);
+    }
+
+    // tells the server the axes of this tick, and which snapshot arrived last so it can code against it
+    public void sendInput(float x, float y) {
+        if (!welcomed) {
+            return;
+        }
+        ByteBuffer body = connection.begin(NetProtocol.INPUT, INPUT_SIZE);
+        if (body == null) {
+            return; // the server isn't reading, newer input comes next tick anyway
+        }
+        NetProtocol.putVarInt(body, history.getLatestTick() + 1);
+        body.putLong(lastServerTime);
+        NetProtocol.putVarInt(body, lastServerTime == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, System.nanoTime() - lastReceived));
+        body.putFloat(x);
+        body.putFloat(y);
+        connection.end();
+    }
+
+    public void flush() {
+        connection.flush();
+    }
+
+    public void close() {
+        connection.close();
+    }
+
+    @Override
+    public void message(Connection connection, byte type, ByteBuffer body) throws IOException {
+        switch (type) {
+            case NetProtocol.WELCOME -> {
+                playerId = body.get();
+                worldSeed = body.getLong();
+                map = NetProtocol.getString(body);
+                tickRate = Math.max(1, NetProtocol.getVarInt(body));
+                snapshotInterval = Math.max(1, NetProtocol.getVarInt(body));
+                welcomed = true;
+                history.clear();
+                roomVersion++;
+            }
+            case NetProtocol.ROOM -> {
+                map = NetProtocol.getString(body);
+                history.clear();
+                roomVersion++;
+            }
+            case NetProtocol.SNAPSHOT -> {
+                long serverTime = body.getLong();
+                if (codec.decode(body, history) != null) {
+                    lastServerTime = serverTime;
+                    lastReceived = System.nanoTime();
+                    snapshotsDecoded++;
+                } else {
+                    snapshotsDropped++;
+                }
+            }
+            default -> throw new IOException("unexpected message type " + type);
+        }
+    }
+
+    public boolean isClosed() {
+        return connection.isClosed();
+    }
+
+    public boolean isWelcomed() {
+        return welcomed;
+    }
+
+    // id of our player on the server
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public String getMap() {
+        return map;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public int getRoomVersion() {
+        return roomVersion;
+    }
+
+    public SnapshotHistory getHistory() {
+        return history;
+    }
+
+    // System.nanoTime() when the latest snapshot arrived
+    public long getLastReceived() {
+        return lastReceived;
+    }
+
+    public long getSnapshotsDecoded() {
+        return snapshotsDecoded;
+    }
+
+    public long getSnapshotsDropped() {
+        return snapshotsDropped;
+    }
+
+    public NetStats getStats() {
+        return connection.getStats();
+    }
+}
@@ -0,0 +1,140 @@
+package com.gradle.game.net;
+
+import java.util.Arrays;
+
+// State of every networked entity at one server tick: a key, a fixed point position and a facing each.
+// Entities are kept sorted by key so two snapshots can be walked side by side when delta coding them.
+// Keys: players are id * 2, mobs are their net id * 2 + 1 (see key()).
+// Snapshots are reused by SnapshotHistory, the arrays only grow.
+public class Snapshot {
+
+    private int tick = -1;
+    private int count = 0;
+    private int[] keys = new int[64];
+    private int[] x = new int[64];
+    private int[] y = new int[64];
+    private byte[] facing = new byte[64];
+
+    // only used while sorting, see sort()
+    private long[] order = new long[0];
+    private int[] scratchX = new int[0];
+    private int[] scratchY = new int[0];
+    private byte[] scratchFacing = new byte[0];
+
+    public static int playerKey(int id) {
+        return id << 1;
+    }
+
+    public static int mobKey(int netId) {
+        return (netId << 1) | 1;
+    }
+
+    public static boolean isPlayer(int key) {
+        return (key & 1) == 0;
+    }
+
+    public static int idOf(int key) {
+        return key >>> 1;
+    }
+
+    public void clear(int tick) {
+        this.tick = tick;
+        this.count = 0;
+    }
+
+    // adds an entity. call sort() once everything is added, unless the keys were added in order
+    public void add(int key, int x, int y, byte facing) {
+        if (count == keys.length) {
+            grow(count * 2);
+        }
+        this.keys[count] = key;
+        this.x[count] = x;
+        this.y[count] = y;
+        this.facing[count] = facing;
+        count++;
+    }
+
+    // sorts by key. keys and indices are packed into longs so a primitive sort does it
+    public void sort() {
+        boolean sorted = true;
+        for (int i = 1; i < count; i++) {
+            if (keys[i - 1] > keys[i]) {
+                sorted = false;
+                break;
+            }
+        }
+        if (sorted) {
+            return;
+        }
+
+        if (order.length < count) {
+            order = new long[keys.length];
+            scratchX = new int[keys.length];
+            scratchY = new int[keys.length];
+            scratchFacing = new byte[keys.length];
+        }
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) keys[i] << 32) | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            int from = (int) order[i];
+            scratchX[i] = x[from];
+            scratchY[i] = y[from];
+            scratchFacing[i] = facing[from];
+            keys[i] = (int) (order[i] >>> 32);
+        }
+        System.arraycopy(scratchX, 0, x, 0, count);
+        System.arraycopy(scratchY, 0, y, 0, count);
+        System.arraycopy(scratchFacing, 0, facing, 0, count);
+    }
+
+    public void copyFrom(Snapshot other) {
+        if (keys.length < other.count) {
+            grow(other.count);
+        }
+        this.tick = other.tick;
+        this.count = other.count;
+        System.arraycopy(other.keys, 0, keys, 0, count);
+        System.arraycopy(other.x, 0, x, 0, count);
+        System.arraycopy(other.y, 0, y, 0, count);
+        System.arraycopy(other.facing, 0, facing, 0, count);
+    }
+
+    // index of the key, or a negative number if the snapshot doesn't have it
+    public int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getKey(int index) {
+        return keys[index];
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    public byte getFacing(int index) {
+        return facing[index];
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        facing = Arrays.copyOf(facing, capacity);
+    }
+}
@@ -0,0 +1,189 @@
+package com.gradle.game.net;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Codes a snapshot as the difference to an older one the other side already has (its baseline), or in full
+// when there is none. Entities that didn't move aren't sent at all, the ones that did only send what changed,
+// as small signed varints of the change. A room of wandering mobs mostly standing still costs a few bytes.
+//
+// Body:
+//   varint tick, varint baseline tick + 1 (0 for a full snapshot)
+//   changed entities, by key: varint key - previous key (first previous key is -1), byte CHANGE_* flags,
+//                             signed varint x change, signed varint y change, byte facing (each if flagged)
+//   varint 0
+//   removed keys: varint key - previous key, same as above
+//   varint 0
+//
+// One codec per connection, decoding reuses its scratch arrays.
+public class SnapshotCodec {
+
+    private static final int CHANGE_X = 1;
+    private static final int CHANGE_Y = 2;
+    private static final int CHANGE_FACING = 4;
+
+    // entities read from the body before they are merged with the baseline
+    private int changes = 0;
+    private int[] changeKeys = new int[64];
+    private int[] changeX = new int[64];
+    private int[] changeY = new int[64];
+    private byte[] changeFacing = new byte[64];
+    private byte[] changeFlags = new byte[64];
+    private int removals = 0;
+    private int[] removedKeys = new int[16];
+
+    // writes current coded against the baseline, which may be null. both must be sorted
+    public void encode(Snapshot current, Snapshot baseline, ByteBuffer out) {
+        NetProtocol.putVarInt(out, current.getTick());
+        NetProtocol.putVarInt(out, baseline == null ? 0 : baseline.getTick() + 1);
+
+        int b = 0;
+        int baseSize = baseline == null ? 0 : baseline.size();
+        int previous = -1;
+        for (int i = 0; i < current.size(); i++) {
+            int key = current.getKey(i);
+            while (b < baseSize && baseline.getKey(b) < key) {
+                b++;
+            }
+            boolean known = b < baseSize && baseline.getKey(b) == key;
+            int baseX = known ? baseline.getX(b) : 0;
+            int baseY = known ? baseline.getY(b) : 0;
+            int flags = 0;
+            if (current.getX(i) != baseX) {
+                flags |= CHANGE_X;
+            }
+            if (current.getY(i) != baseY) {
+                flags |= CHANGE_Y;
+            }
+            if (!known || current.getFacing(i) != baseline.getFacing(b)) {
+                flags |= CHANGE_FACING;
+            }
+            if (flags == 0) {
+                continue;
+            }
+
+            NetProtocol.putVarInt(out, key - previous);
+            previous = key;
+            out.put((byte) flags);
+            if ((flags & CHANGE_X) != 0) {
+                NetProtocol.putSignedVarInt(out, current.getX(i) - baseX);
+            }
+            if ((flags & CHANGE_Y) != 0) {
+                NetProtocol.putSignedVarInt(out, current.getY(i) - baseY);
+            }
+            if ((flags & CHANGE_FACING) != 0) {
+                out.put(current.getFacing(i));
+            }
+        }
+        NetProtocol.putVarInt(out, 0);
+
+        // keys of the baseline that are gone
+        previous = -1;
+        int c = 0;
+        for (int i = 0; i < baseSize; i++) {
+            int key = baseline.getKey(i);
+            while (c < current.size() && current.getKey(c) < key) {
+                c++;
+            }
+            if (c < current.size() && current.getKey(c) == key) {
+                continue;
+            }
+            NetProtocol.putVarInt(out, key - previous);
+            previous = key;
+        }
+        NetProtocol.putVarInt(out, 0);
+    }
+
+    // reads a body into history. returns the decoded snapshot, or null if its baseline isn't in the history
+    // any more (the body is skipped, the sender will fall back to a full snapshot once acks stop coming)
+    public Snapshot decode(ByteBuffer in, SnapshotHistory history) {
+        int tick = NetProtocol.getVarInt(in);
+        int baselineTick = NetProtocol.getVarInt(in) - 1;
+        readChanges(in);
+
+        Snapshot baseline = null;
+        if (baselineTick >= 0) {
+            baseline = history.get(baselineTick);
+            if (baseline == null) {
+                return null;
+            }
+        }
+        if (tick <= history.getLatestTick()) {
+            return null; // older than what we have, nothing to gain from it
+        }
+        Snapshot out = history.next(tick);
+        merge(baseline, out);
+        return out;
+    }
+
+    private void readChanges(ByteBuffer in) {
+        changes = 0;
+        int key = -1;
+        for (int delta = NetProtocol.getVarInt(in); delta != 0; delta = NetProtocol.getVarInt(in)) {
+            key += delta;
+            if (changes == changeKeys.length) {
+                growChanges(changes * 2);
+            }
+            int flags = in.get();
+            changeKeys[changes] = key;
+            changeFlags[changes] = (byte) flags;
+            changeX[changes] = (flags & CHANGE_X) != 0 ? NetProtocol.getSignedVarInt(in) : 0;
+            changeY[changes] = (flags & CHANGE_Y) != 0 ? NetProtocol.getSignedVarInt(in) : 0;
+            changeFacing[changes] = (flags & CHANGE_FACING) != 0 ? in.get() : 0;
+            changes++;
+        }
+
+        removals = 0;
+        key = -1;
+        for (int delta = NetProtocol.getVarInt(in); delta != 0; delta = NetProtocol.getVarInt(in)) {
+            key += delta;
+            if (removals == removedKeys.length) {
+                removedKeys = Arrays.copyOf(removedKeys, removals * 2);
+            }
+            removedKeys[removals++] = key;
+        }
+    }
+
+    // baseline minus the removed keys, with the changes applied. all three are sorted, so is the result
+    private void merge(Snapshot baseline, Snapshot out) {
+        int baseSize = baseline == null ? 0 : baseline.size();
+        int b = 0;
+        int c = 0;
+        int r = 0;
+        while (b < baseSize || c < changes) {
+            int baseKey = b < baseSize ? baseline.getKey(b) : Integer.MAX_VALUE;
+            int changeKey = c < changes ? changeKeys[c] : Integer.MAX_VALUE;
+
+            if (changeKey < baseKey) {
+                // new entity, its values are absolute
+                out.add(changeKey, changeX[c], changeY[c], changeFacing[c]);
+                c++;
+                continue;
+            }
+
+            while (r < removals && removedKeys[r] < baseKey) {
+                r++;
+            }
+            boolean removed = r < removals && removedKeys[r] == baseKey;
+            if (changeKey == baseKey) {
+                int flags = changeFlags[c];
+                out.add(baseKey,
+                        baseline.getX(b) + changeX[c],
+                        baseline.getY(b) + changeY[c],
+                        (flags & CHANGE_FACING) != 0 ? changeFacing[c] : baseline.getFacing(b));
+                c++;
+            } else if (!removed) {
+                out.add(baseKey, baseline.getX(b), baseline.getY(b), baseline.getFacing(b));
+            }
+            b++;
+        }
+    }
+
+    private void growChanges(int capacity) {
+        changeKeys = Arrays.copyOf(changeKeys, capacity);
+        changeX = Arrays.copyOf(changeX, capacity);
+        changeY = Arrays.copyOf(changeY, capacity);
+        changeFacing = Arrays.copyOf(changeFacing, capacity);
+        changeFlags = Arrays.copyOf(changeFlags, capacity);
+    }
+}
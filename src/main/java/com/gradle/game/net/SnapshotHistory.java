@@ -0,0 +1,73 @@
+package com.gradle.game.net;
+
+// The last few snapshots by tick. The server keeps the ones it sent so it can code the next one against
+// whatever a client acknowledged, a client keeps the ones it received to decode against and interpolate between.
+// A tick older than the history is gone, the other side then gets or needs a full snapshot.
+public class SnapshotHistory {
+
+    public static final int SIZE = 32; // half a second of snapshots at one every tick, more at lower rates
+
+    private final Snapshot[] snapshots = new Snapshot[SIZE];
+    private int latest = -1;
+
+    public SnapshotHistory() {
+        for (int i = 0; i < SIZE; i++) {
+            snapshots[i] = new Snapshot();
+        }
+    }
+
+    // the snapshot to fill for the tick, cleared. ticks must only go up
+    public Snapshot next(int tick) {
+        Snapshot snapshot = snapshots[Math.floorMod(tick, SIZE)];
+        snapshot.clear(tick);
+        latest = tick;
+        return snapshot;
+    }
+
+    // the snapshot of the tick, or null if there never was one or it was overwritten
+    public Snapshot get(int tick) {
+        if (tick < 0) {
+            return null;
+        }
+        Snapshot snapshot = snapshots[Math.floorMod(tick, SIZE)];
+        return snapshot.getTick() == tick ? snapshot : null;
+    }
+
+    public Snapshot getLatest() {
+        return get(latest);
+    }
+
+    public int getLatestTick() {
+        return latest;
+    }
+
+    // the newest snapshot at or before the tick, or null
+    public Snapshot getAtOrBefore(int tick) {
+        for (int t = Math.min(tick, latest); t > latest - SIZE && t >= 0; t--) {
+            Snapshot snapshot = get(t);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    // the oldest snapshot after the tick, or null
+    public Snapshot getAfter(int tick) {
+        for (int t = Math.max(tick + 1, latest - SIZE + 1); t <= latest; t++) {
+            Snapshot snapshot = get(t);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    // forgets everything, used when the room changes and old keys mean other entities
+    public void clear() {
+        for (Snapshot snapshot : snapshots) {
+            snapshot.clear(-1);
+        }
+        latest = -1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gradle.game.profiling;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts the bytes our own tick code allocates, for the allocation check.
+// The whole tick is counted (tickStart()/tickEnd() around the loop's process()), and what the engine allocates
+// in the calls we make into it is taken back out: the physics, moving through it, the animation controllers
+// of our entities. Those are marked with enterEngine()/exitEngine(). Our code the engine calls back from
+// inside them (collision listeners, setLocation) is marked with enterOwn()/exitOwn() and counts again.
+// The loop's own bookkeeping around the updateables can't be marked and is counted, a few hundred bytes a tick.
+// The think phase forks onto the common pool for big rooms, workers add theirs with workerSince().
+// Off by default, then every call is a field read and nothing is counted.
+public final class AllocationMeter {
+    private AllocationMeter() {
+    }
+
+    private static final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static boolean enabled = false;
+    private static Thread loopThread;
+    private static long tickStart = 0;
+    private static long ticks = 0; // everything allocated on the loop thread during ticks
+    private static final LongAdder workers = new LongAdder(); // allocated by our code on other threads during ticks
+
+    private static int engineDepth = 0; // engine calls nest, e.g. an animation controller updating from inside physics
+    private static long engineStart = 0;
+    private static long engine = 0; // the part of ticks allocated inside engine calls
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static void tickStart() {
+        if (enabled) {
+            loopThread = Thread.currentThread();
+            tickStart = threads.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    public static void tickEnd() {
+        if (enabled) {
+            ticks += threads.getCurrentThreadAllocatedBytes() - tickStart;
+            loopThread = null;
+        }
+    }
+
+    // the code until exitEngine() is the engine's, not ours to fix
+    public static void enterEngine() {
+        if (enabled && engineDepth++ == 0) {
+            engineStart = threads.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    public static void exitEngine() {
+        if (enabled && --engineDepth == 0) {
+            engine += threads.getCurrentThreadAllocatedBytes() - engineStart;
+        }
+    }
+
+    // our code running inside an engine call. doesn't nest, a callback shouldn't call back into the engine
+    public static void enterOwn() {
+        if (enabled && engineDepth > 0) {
+            engine += threads.getCurrentThreadAllocatedBytes() - engineStart;
+        }
+    }
+
+    public static void exitOwn() {
+        if (enabled && engineDepth > 0) {
+            engineStart = threads.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    public static long mark() {
+        return enabled ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    // for work of the tick that ran on another thread. the loop thread's share is already counted by the tick
+    public static void workerSince(long mark) {
+        if (enabled && Thread.currentThread() != loopThread) {
+            workers.add(threads.getCurrentThreadAllocatedBytes() - mark);
+        }
+    }
+
+    // bytes our own code allocated since the meter was enabled
+    public static long getOwnBytes() {
+        return ticks + workers.sum() - engine;
+    }
+}
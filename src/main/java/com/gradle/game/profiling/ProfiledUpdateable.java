@@ -0,0 +1,54 @@
+package com.gradle.game.profiling;
+
+import de.gurkenlabs.litiengine.IUpdateable;
+
+// Wraps something attached to the game loop and times each of its updates.
+public class ProfiledUpdateable implements IUpdateable {
+
+    private final IUpdateable target;
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LatencyHistogram classHistogram;
+
+    // time spent since the profiler last looked for the slowest updateables
+    private long windowTime = 0;
+
+    ProfiledUpdateable(IUpdateable target, LatencyHistogram classHistogram) {
+        this.target = target;
+        this.name = target.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(target));
+        this.classHistogram = classHistogram;
+    }
+
+    @Override
+    public void update() {
+        long start = System.nanoTime();
+        target.update();
+        long time = System.nanoTime() - start;
+
+        histogram.record(time);
+        classHistogram.record(time);
+        windowTime += time;
+    }
+
+    public IUpdateable getTarget() {
+        return target;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getWindowTime() {
+        return windowTime;
+    }
+
+    long resetWindowTime() {
+        long time = windowTime;
+        windowTime = 0;
+        return time;
+    }
+}
@@ -0,0 +1,155 @@
+package com.gradle.game.profiling;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Times everything we attach to the game loop. Use TickProfiler.attach/detach instead of
+// Game.loop().attach/detach so the profiler can wrap the updateable when it is enabled.
+// When disabled (the default) the updateable is attached as is and there is no overhead.
+//
+// Enable with -Dgame.profile=true, or setEnabled(true) before anything is attached.
+public final class TickProfiler {
+    private TickProfiler() {
+    }
+
+    private static final int SLOWEST_COUNT = 5;
+    private static final String DEFAULT_DUMP_FILE = "tick-profile.txt";
+
+    private static boolean enabled = Boolean.getBoolean("game.profile");
+    private static boolean reporting = false;
+
+    private static final Map<IUpdateable, ProfiledUpdateable> wrappers = new IdentityHashMap<>();
+    private static final Map<Class<?>, LatencyHistogram> classes = new LinkedHashMap<>();
+    private static List<ProfiledUpdateable> slowest = List.of();
+
+    private static final IUpdateable reporter = new IUpdateable() {
+        private long windowStart = System.nanoTime();
+
+        @Override
+        public void update() {
+            if (System.nanoTime() - windowStart >= 1_000_000_000L) {
+                flagSlowest();
+                windowStart = System.nanoTime();
+            }
+        }
+    };
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static synchronized void attach(IUpdateable updateable) {
+        if (enabled && wrappers.containsKey(updateable)) {
+            return;
+        }
+        Game.loop().attach(profile(updateable));
+    }
+
+    // the updateable to call instead of the given one, for updateables something else calls every tick (see GameTick).
+    // the updateable itself when the profiler is off
+    public static synchronized IUpdateable profile(IUpdateable updateable) {
+        if (!enabled) {
+            return updateable;
+        }
+
+        if (!reporting) {
+            Game.loop().attach(reporter);
+            reporting = true;
+        }
+        ProfiledUpdateable wrapper = wrappers.get(updateable);
+        if (wrapper == null) {
+            LatencyHistogram classHistogram = classes.computeIfAbsent(updateable.getClass(), c -> new LatencyHistogram());
+            wrapper = new ProfiledUpdateable(updateable, classHistogram);
+            wrappers.put(updateable, wrapper);
+        }
+        return wrapper;
+    }
+
+    public static synchronized void detach(IUpdateable updateable) {
+        ProfiledUpdateable wrapper = wrappers.remove(updateable);
+        Game.loop().detach(wrapper != null ? wrapper : updateable);
+    }
+
+    // per class times, in nanoseconds
+    public static synchronized Map<Class<?>, LatencyHistogram> getClassHistograms() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(classes));
+    }
+
+    // per instance times, in nanoseconds
+    public static synchronized List<ProfiledUpdateable> getInstances() {
+        return new ArrayList<>(wrappers.values());
+    }
+
+    // the updateables that used the most time in the last full second
+    public static synchronized List<ProfiledUpdateable> getSlowest() {
+        return slowest;
+    }
+
+    private static synchronized void flagSlowest() {
+        List<ProfiledUpdateable> all = new ArrayList<>(wrappers.values());
+        long[] times = new long[all.size()];
+        Integer[] order = new Integer[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            times[i] = all.get(i).resetWindowTime();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(times[b], times[a]));
+
+        List<ProfiledUpdateable> top = new ArrayList<>(SLOWEST_COUNT);
+        StringBuilder message = new StringBuilder("PROFILER: slowest updateables this second:");
+        for (int i = 0; i < Math.min(SLOWEST_COUNT, order.length); i++) {
+            ProfiledUpdateable wrapper = all.get(order[i]);
+            top.add(wrapper);
+            message.append(String.format(" %s %.2fms", wrapper.getName(), times[order[i]] / 1e6));
+        }
+        slowest = Collections.unmodifiableList(top);
+
+        if (!top.isEmpty()) {
+            System.out.println(message);
+        }
+    }
+
+    public static void dump() {
+        dump(Path.of(DEFAULT_DUMP_FILE));
+    }
+
+    public static synchronized void dump(Path file) {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("Tick profile, times in microseconds");
+            out.println();
+            out.printf("%-40s %10s %10s %10s %10s %10s %10s%n", "class", "updates", "mean", "p50", "p99", "p99.9", "max");
+            for (Map.Entry<Class<?>, LatencyHistogram> entry : classes.entrySet()) {
+                print(out, entry.getKey().getName(), entry.getValue());
+            }
+
+            out.println();
+            out.printf("%-40s %10s %10s %10s %10s %10s %10s%n", "instance", "updates", "mean", "p50", "p99", "p99.9", "max");
+            List<ProfiledUpdateable> instances = new ArrayList<>(wrappers.values());
+            instances.sort(Comparator.comparingLong((ProfiledUpdateable w) -> w.getHistogram().getTotal()).reversed());
+            for (ProfiledUpdateable wrapper : instances) {
+                print(out, wrapper.getName(), wrapper.getHistogram());
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR: failed to write tick profile to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void print(PrintWriter out, String name, LatencyHistogram histogram) {
+        out.printf("%-40s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getCount(),
+                histogram.getMean() / 1e3,
+                histogram.getValueAtPercentile(50) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3,
+                histogram.getMax() / 1e3);
+    }
+}